@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Порівняння платформних і віртуальних потоків під однаковим навантаженням.
+# Потрібні: JDK 21+, запущений PostgreSQL з application.properties, hey (https://github.com/rakyll/hey).
+#
+#   scripts/load-compare.sh [concurrency] [duration]
+#
+# Збирає jar профілем virtual-threads, по черзі запускає його без і зі Spring-профілем virtual
+# і проганяє однакові сценарії. Звіти – target/load-compare/<mode>-<scenario>.txt, підсумок – summary.txt.
+set -euo pipefail
+
+CONCURRENCY="${1:-500}"
+DURATION="${2:-30s}"
+PORT=8081
+BASE="http://localhost:${PORT}"
+# actuator на окремому порту лише для localhost – там /actuator/prometheus доступний без токена
+MGMT_PORT=8181
+MGMT="http://127.0.0.1:${MGMT_PORT}"
+OUT="target/load-compare"
+
+cd "$(dirname "$0")/.."
+mvn -B -q -Pvirtual-threads -DskipTests package
+JAR="$(ls target/*.jar | grep -v original | head -1)"
+mkdir -p "$OUT"
+
+wait_up() {
+  for _ in $(seq 1 60); do
+    curl -sf "${MGMT}/actuator/health" > /dev/null && return 0
+    sleep 1
+  done
+  echo "Застосунок не піднявся" >&2
+  return 1
+}
+
+run_mode() {
+  local mode="$1" profiles="$2"
+  # Один користувач на сотні з'єднань – ліміти LoadSheddingFilter тут заважали б порівнянню
+  java -jar "$JAR" --spring.profiles.active="$profiles" --load-shedding.enabled=false \
+    --management.server.port="$MGMT_PORT" --management.server.address=127.0.0.1 > "$OUT/$mode-app.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2> /dev/null || true" EXIT
+  wait_up
+
+  local token
+  token="$(curl -sf -X POST "${BASE}/auth/login" -H 'Content-Type: application/json' \
+    -d '{"username":"load","password":"load"}' | sed -E 's/.*"accessToken" *: *"([^"]+)".*/\1/')"
+
+  # Прогрів JIT і пулів
+  hey -z 10s -c 50 -H "Authorization: Bearer ${token}" "${BASE}/students?limit=50" > /dev/null
+
+  hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer ${token}" \
+    "${BASE}/students?limit=50" > "$OUT/$mode-students-page.txt"
+  hey -z "$DURATION" -c "$CONCURRENCY" "${BASE}/rates" > "$OUT/$mode-rates.txt"
+  hey -z "$DURATION" -c "$CONCURRENCY" -H "Authorization: Bearer ${token}" \
+    "${BASE}/crypto/map?symbol=BTC,ETH" > "$OUT/$mode-crypto-map.txt"
+
+  curl -sf "${MGMT}/actuator/prometheus" > "$OUT/$mode-metrics.txt" || true
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  trap - EXIT
+}
+
+run_mode platform default
+run_mode virtual virtual
+
+{
+  echo "concurrency=${CONCURRENCY} duration=${DURATION}"
+  for scenario in students-page rates crypto-map; do
+    for mode in platform virtual; do
+      f="$OUT/$mode-$scenario.txt"
+      printf '%-14s %-9s rps=%-10s p50=%-10s p99=%-10s errors=%s\n' "$scenario" "$mode" \
+        "$(awk '/Requests\/sec/ {print $2}' "$f")" \
+        "$(awk '/ 50%/ {print $3}' "$f")" \
+        "$(awk '/ 99%/ {print $3}' "$f")" \
+        "$(awk '/Error distribution/ {e=1; next} e && /\[/ {gsub(/[\[\]]/, "", $1); s+=$1} END {print s+0}' "$f")"
+    done
+  done
+} | tee "$OUT/summary.txt"
@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Наскрізний навантажувальний тест (src/loadtest/java, LoadTest): вхід, список і створення студентів
+# з фіксованою частотою запитів, латентність у HdrHistogram.
+# Потрібні: python3, curl; для LOADTEST_DB=docker – Docker, для LOADTEST_DB=local – PostgreSQL з application.properties.
+#
+#   scripts/load-test.sh [label] [аргументи LoadTest...]       прогін, звіт у target/load-test/<label>/
+#   scripts/load-test.sh compare <base-label> <candidate-label> різниця двох прогонів
+#
+#   scripts/load-test.sh before --rates=100,200,400 --duration=60s
+#   git checkout my-branch && scripts/load-test.sh after --rates=100,200,400 --duration=60s
+#   scripts/load-test.sh compare before after
+#
+# LOADTEST_DB=docker (за замовчуванням) піднімає чистий PostgreSQL на порту 55432 і прибирає його після прогону,
+# тож кожен прогін стартує з однакового стану. Зовнішні API (НБУ, CoinMarketCap) замінені scripts/upstream-stub.py.
+# APP_ARGS – додаткові аргументи застосунку, напр. APP_ARGS="--load-shedding.enabled=true".
+# Журнали застосунку і заглушки – target/load-test/<label>/app.log, stub.log.
+set -euo pipefail
+
+PORT=18082
+STUB_PORT=18091
+DB_PORT=55432
+CONTAINER=demo-pg-loadtest
+BASE="http://localhost:${PORT}"
+# actuator на окремому порту лише для localhost – /actuator/prometheus там доступний без токена
+MGMT_PORT=18182
+MGMT="http://127.0.0.1:${MGMT_PORT}"
+STUB="http://127.0.0.1:${STUB_PORT}"
+OUT="target/load-test"
+
+cd "$(dirname "$0")/.."
+
+if [[ "${1:-}" == "compare" ]]; then
+  mvn -B -q -Pload-test test-compile exec:exec \
+    -Dloadtest.args="compare $OUT/$2/report.json $OUT/$3/report.json"
+  exit 0
+fi
+
+LABEL="${1:-$(date +%Y%m%d-%H%M%S)}"
+shift || true
+DIR="$OUT/$LABEL"
+mkdir -p "$DIR"
+
+# Генератор компілюється в target/test-classes (профіль load-test) – у jar застосунку він не потрапляє
+mvn -B -q -DskipTests package
+JAR="$(ls target/*.jar | grep -v original | head -1)"
+cp "$JAR" "$OUT/app.jar"
+
+PIDS=()
+cleanup() {
+  kill "${PIDS[@]}" 2> /dev/null || true
+  [[ "${LOADTEST_DB:-docker}" == "docker" ]] && docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+DB_ARGS=()
+if [[ "${LOADTEST_DB:-docker}" == "docker" ]]; then
+  docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+  docker run -d --name "$CONTAINER" -p "$DB_PORT:5432" \
+    -e POSTGRES_PASSWORD=root -e POSTGRES_DB=java_group "${PG_IMAGE:-postgres:15}" > /dev/null
+  for _ in $(seq 1 60); do
+    docker exec "$CONTAINER" pg_isready -U postgres -d java_group > /dev/null 2>&1 && break
+    sleep 1
+  done
+  # Схеми в репозиторії немає – у чистій БД таблиці створює Hibernate
+  DB_ARGS=(--spring.datasource.url="jdbc:postgresql://localhost:${DB_PORT}/java_group"
+           --spring.jpa.hibernate.ddl-auto=update)
+fi
+
+python3 scripts/upstream-stub.py "$STUB_PORT" > "$DIR/stub.log" 2>&1 &
+PIDS+=($!)
+
+# Ліміти LoadSheddingFilter за замовчуванням вимкнені: інакше вимірюється обмежувач, а не застосунок
+# shellcheck disable=SC2086
+java -jar "$OUT/app.jar" --server.port="$PORT" --load-shedding.enabled=false \
+  --management.server.port="$MGMT_PORT" --management.server.address=127.0.0.1 \
+  --url.cryptocurrency="$STUB/v1/cryptocurrency/map" \
+  --url.nbu.json="$STUB/NBUStatService/v1/statdirectory/exchange?json" \
+  --url.nbu.xml="$STUB/NBUStatService/v1/statdirectory/exchange" \
+  ${DB_ARGS[@]+"${DB_ARGS[@]}"} ${APP_ARGS:-} > "$DIR/app.log" 2>&1 &
+PIDS+=($!)
+
+mvn -B -q -Pload-test test-compile exec:exec \
+  -Dloadtest.args="--base-url=$BASE --health-url=$MGMT/actuator/health --label=$LABEL --out=$OUT $*"
+
+curl -sf "${MGMT}/actuator/prometheus" > "$DIR/metrics.txt" || true
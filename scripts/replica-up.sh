@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Два локальні PostgreSQL у Docker зі streaming-реплікацією: primary на 5432, replica (hot standby) на 5433.
+# Після цього застосунок запускається з профілем replica:
+#
+#   scripts/replica-up.sh
+#   mvn spring-boot:run -Dspring-boot.run.profiles=replica
+#
+# Куди пішло з'єднання – метрики datasource.routing.connections{target=primary|replica}
+# та hikaricp_connections_* з пулами primary і replica на /actuator/prometheus.
+#   scripts/replica-up.sh down – зупинити і видалити контейнери.
+set -euo pipefail
+
+NETWORK=demo-pg
+PRIMARY=demo-pg-primary
+REPLICA=demo-pg-replica
+IMAGE="${PG_IMAGE:-postgres:15}"
+PASSWORD=root
+DB=java_group
+
+if [[ "${1:-}" == "down" ]]; then
+  docker rm -f "$REPLICA" "$PRIMARY" > /dev/null 2>&1 || true
+  docker network rm "$NETWORK" > /dev/null 2>&1 || true
+  exit 0
+fi
+
+docker network inspect "$NETWORK" > /dev/null 2>&1 || docker network create "$NETWORK" > /dev/null
+
+docker run -d --name "$PRIMARY" --network "$NETWORK" -p 5432:5432 \
+  -e POSTGRES_PASSWORD="$PASSWORD" -e POSTGRES_DB="$DB" \
+  "$IMAGE" -c wal_level=replica -c max_wal_senders=5 -c hot_standby=on > /dev/null
+
+until docker exec "$PRIMARY" pg_isready -U postgres > /dev/null 2>&1; do sleep 1; done
+docker exec "$PRIMARY" psql -U postgres -c "CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '$PASSWORD'" > /dev/null
+docker exec "$PRIMARY" bash -c "echo 'host replication replicator all scram-sha-256' >> \"\$PGDATA/pg_hba.conf\""
+docker exec "$PRIMARY" psql -U postgres -c "SELECT pg_reload_conf()" > /dev/null
+
+# Replica: порожній каталог даних заповнюється pg_basebackup, -R записує standby.signal і primary_conninfo
+docker run -d --name "$REPLICA" --network "$NETWORK" -p 5433:5432 \
+  -e PGPASSWORD="$PASSWORD" --user postgres --entrypoint bash "$IMAGE" -c "
+    rm -rf /var/lib/postgresql/data/* &&
+    pg_basebackup -h $PRIMARY -U replicator -D /var/lib/postgresql/data -R -X stream &&
+    chmod 700 /var/lib/postgresql/data &&
+    exec postgres -D /var/lib/postgresql/data" > /dev/null
+
+until docker exec "$REPLICA" pg_isready -U postgres > /dev/null 2>&1; do sleep 1; done
+echo "primary: localhost:5432, replica: localhost:5433 (in recovery: $(docker exec "$REPLICA" psql -U postgres -tAc 'SELECT pg_is_in_recovery()'))"
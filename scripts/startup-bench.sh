@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Час старту до першого успішного GET /students і RSS у цей момент: звичайний fat jar проти профілю fast-start
+# (тонкий jar + AppCDS-архів + Spring-профіль fast). Потрібні: JDK 13+, запущений PostgreSQL з application.properties, curl.
+#
+#   scripts/startup-bench.sh [runs]
+#
+# Кожен режим запускається runs разів (за замовчуванням 5) з однаковими JVM-параметрами.
+# Сирі виміри – target/startup-bench/<mode>.tsv, медіани – summary.txt.
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT=8081
+BASE="http://localhost:${PORT}"
+OUT="target/startup-bench"
+JVM_OPTS="${JVM_OPTS:--Xmx512m}"
+
+cd "$(dirname "$0")/.."
+mvn -B -q clean package -DskipTests
+mkdir -p "$OUT"
+cp "$(ls target/*.jar | grep -v original | head -1)" "$OUT/default.jar"
+# Тонкий jar і lib у target/fast-start; тренувальний запуск пише target/fast-start/app-cds.jsa
+mvn -B -q -Pfast-start package -DskipTests
+FAST_JAR="$(ls target/fast-start/*.jar | head -1)"
+
+# Токен отримуємо один раз: ключ підпису однаковий для всіх запусків, TTL із запасом на весь прогін
+ARGS=(--server.port="$PORT" --jwt.access-token-ttl=2h)
+java $JVM_OPTS -jar "$OUT/default.jar" "${ARGS[@]}" > "$OUT/token-app.log" 2>&1 &
+PID=$!
+trap 'kill $PID 2> /dev/null || true' EXIT
+TOKEN=""
+for _ in $(seq 1 120); do
+  TOKEN="$(curl -s -X POST "${BASE}/auth/login" -H 'Content-Type: application/json' \
+    -d '{"username":"startup-bench","password":"startup-bench"}' | sed -nE 's/.*"accessToken" *: *"([^"]+)".*/\1/p')"
+  [[ -n "$TOKEN" ]] && break
+  sleep 1
+done
+kill "$PID"; wait "$PID" 2> /dev/null || true
+[[ -n "$TOKEN" ]] || { echo "Не вдалося отримати токен, див. $OUT/token-app.log" >&2; exit 1; }
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+# Один запуск: мс до першого 200 на GET /students і VmRSS (КБ) у цей момент
+measure() {
+  local log="$1"; shift
+  local start status rss
+  start="$(now_ms)"
+  "$@" > "$log" 2>&1 &
+  PID=$!
+  while true; do
+    status="$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $TOKEN" "${BASE}/students" || true)"
+    [[ "$status" == "200" ]] && break
+    kill -0 "$PID" 2> /dev/null || { echo "Застосунок завершився, див. $log" >&2; exit 1; }
+    sleep 0.01
+  done
+  local elapsed=$(( $(now_ms) - start ))
+  rss="$(awk '/VmRSS/ {print $2}' "/proc/$PID/status" 2> /dev/null || echo 0)"
+  kill "$PID"; wait "$PID" 2> /dev/null || true
+  printf '%s\t%s\n' "$elapsed" "$rss"
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2]+a[NR/2+1])/2)}'; }
+
+run_mode() {
+  local mode="$1"; shift
+  : > "$OUT/$mode.tsv"
+  for i in $(seq 1 "$RUNS"); do
+    measure "$OUT/$mode-$i.log" "$@" >> "$OUT/$mode.tsv"
+  done
+  printf '%-8s first GET /students: %6s ms   RSS: %6s MB\n' "$mode" \
+    "$(cut -f1 "$OUT/$mode.tsv" | median)" "$(( $(cut -f2 "$OUT/$mode.tsv" | median) / 1024 ))"
+}
+
+{
+  echo "runs=$RUNS, JVM_OPTS=$JVM_OPTS, $(java -version 2>&1 | head -1)"
+  run_mode default java $JVM_OPTS -jar "$OUT/default.jar" "${ARGS[@]}"
+  run_mode fast java $JVM_OPTS -XX:SharedArchiveFile=target/fast-start/app-cds.jsa -Xlog:cds=off -jar "$FAST_JAR" \
+    --spring.profiles.active=fast "${ARGS[@]}"
+} | tee "$OUT/summary.txt"
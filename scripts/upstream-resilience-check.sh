@@ -0,0 +1,106 @@
+#!/usr/bin/env bash
+# Перевірка політик зовнішніх викликів (UpstreamResilience) проти локальної заглушки scripts/upstream-stub.py.
+# Потрібні: python3, curl. PostgreSQL не потрібен – /crypto/map і /actuator/upstream працюють без БД.
+#
+#   scripts/upstream-resilience-check.sh
+#
+# Сценарії: нормальна робота → 100% 503 (коло розмикається, далі швидкі відмови) → відновлення (HALF_OPEN → CLOSED)
+# → хвіст latency (hedge-запити) → повільний upstream під паралельним навантаженням (bulkhead).
+# Журнал застосунку – target/upstream-check/app.log.
+set -euo pipefail
+
+PORT=18081
+STUB_PORT=18090
+BASE="http://localhost:${PORT}"
+# actuator на окремому порту лише для localhost – метрики і /actuator/upstream там доступні без токена
+MGMT_PORT=18181
+MGMT="http://127.0.0.1:${MGMT_PORT}"
+STATE="${MGMT}/actuator/upstream"
+STUB="http://127.0.0.1:${STUB_PORT}"
+HOST="hosts[127.0.0.1]"
+OUT="target/upstream-check"
+
+cd "$(dirname "$0")/.."
+mvn -B -q -DskipTests package
+JAR="$(ls target/*.jar | grep -v original | head -1)"
+mkdir -p "$OUT"
+
+python3 scripts/upstream-stub.py "$STUB_PORT" > "$OUT/stub.log" 2>&1 &
+STUB_PID=$!
+java -jar "$JAR" --server.port="$PORT" --load-shedding.enabled=false \
+  --management.server.port="$MGMT_PORT" --management.server.address=127.0.0.1 \
+  --url.cryptocurrency="$STUB/v1/cryptocurrency/map" \
+  --url.nbu.json="$STUB/NBUStatService/v1/statdirectory/exchange?json" \
+  --url.nbu.xml="$STUB/NBUStatService/v1/statdirectory/exchange" \
+  --cmc.cache.ttl=1ms \
+  --http.client.read-timeout=3000 \
+  --"http.client.resilience.$HOST.minimum-calls=5" \
+  --"http.client.resilience.$HOST.sliding-window-size=10" \
+  --"http.client.resilience.$HOST.open-duration=3s" \
+  --"http.client.resilience.$HOST.half-open-calls=2" \
+  --"http.client.resilience.$HOST.max-concurrent-calls=4" \
+  --"http.client.resilience.$HOST.max-wait=50ms" \
+  --"http.client.resilience.$HOST.hedge-after=200ms" \
+  --"http.client.resilience.$HOST.retry-backoff=20ms" \
+  > "$OUT/app.log" 2>&1 &
+APP_PID=$!
+trap 'kill $APP_PID $STUB_PID 2> /dev/null || true' EXIT
+
+for _ in $(seq 1 120); do
+  curl -sf -o /dev/null "${STATE}" && break
+  kill -0 "$APP_PID" 2> /dev/null || { echo "Застосунок завершився, див. $OUT/app.log" >&2; exit 1; }
+  sleep 1
+done
+
+stub() { curl -sf "${STUB}/__stub/$1" > /dev/null; }
+circuit() { curl -sf "${STATE}" | sed -nE 's/.*"127\.0\.0\.1":\{"circuit":"([A-Z_]+)".*/\1/p'; }
+# n запитів по p паралельно; друкує розподіл кодів і найгіршу latency
+burst() {
+  local n="$1" p="$2"
+  seq 1 "$n" | xargs -P "$p" -I{} curl -s -o /dev/null -w '%{http_code} %{time_total}\n' "${BASE}/crypto/map?symbol=S{}" \
+    | awk '{codes[$1]++; if ($2 > max) max = $2} END {for (c in codes) printf "%s×%d ", c, codes[c]; printf "max=%.3fs\n", max}'
+}
+expect() {
+  local want="$1" got
+  got="$(circuit)"
+  [[ "$got" == "$want" ]] || { echo "  ОЧІКУВАЛОСЬ коло $want, маємо $got" >&2; exit 1; }
+  echo "  коло: $got"
+}
+
+echo "1. Нормальна робота"
+stub "config?reset=1"
+echo "  $(burst 20 2)"
+expect CLOSED
+
+echo "2. Upstream повертає 503 на все: повтори, потім коло розмикається і відмови стають миттєвими"
+stub "config?error_rate=1"
+echo "  $(burst 20 1)"
+expect OPEN
+echo "  $(burst 20 4)"
+
+echo "3. Upstream відновився: після open-duration пробні виклики замикають коло"
+stub "config?error_rate=0"
+sleep 3.5
+echo "  $(burst 10 1)"
+expect CLOSED
+
+echo "4. Хвіст latency: 20% відповідей +1.5s, hedge після 200ms"
+stub "config?slow_rate=0.2&slow_ms=1500"
+echo "  $(burst 40 2)"
+stub "config?slow_rate=0"
+echo "  hedge-запитів: $(curl -sf "${STATE}" | sed -nE 's/.*"hedges":([0-9]+),"hedgeWins":([0-9]+).*/\1, виграли: \2/p')"
+# Програвші hedge-гонку запити ще займають bulkhead, поки заглушка не відповість
+sleep 2
+
+echo "5. Повільний upstream (1s) під 16 паралельними запитами, bulkhead 4"
+stub "config?latency_ms=1000"
+echo "  $(burst 32 16)"
+stub "config?latency_ms=0"
+echo "  заглушка: $(curl -sf "${STUB}/__stub/stats")"
+
+echo
+echo "Стан політик: $(curl -sf "${STATE}")"
+for state in OPEN HALF_OPEN CLOSED; do
+  echo "  переходів у $state: $(curl -sf "${MGMT}/actuator/metrics/http.client.circuit.transitions?tag=state:$state" \
+    | sed -nE 's/.*"value":([0-9.]+).*/\1/p')"
+done
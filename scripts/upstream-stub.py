@@ -0,0 +1,126 @@
+#!/usr/bin/env python3
+"""Локальна заглушка НБУ і CoinMarketCap з керованою затримкою і помилками.
+
+    scripts/upstream-stub.py [port]
+
+Відповідає на ті самі шляхи, що й справжні upstream:
+  /NBUStatService/v1/statdirectory/exchange[?json]  – довідник курсів (JSON або XML)
+  /v1/cryptocurrency/map                            – мапа криптовалют CoinMarketCap
+
+Поведінка змінюється на льоту через GET /__stub/config?<параметри>, незадані параметри не змінюються:
+  latency_ms    – базова затримка кожної відповіді
+  jitter_ms     – до скількох мс випадково додати до затримки
+  slow_rate     – частка запитів, які додатково спатимуть slow_ms (хвіст latency для hedging)
+  slow_ms
+  error_rate    – частка запитів, що отримають error_status замість відповіді
+  error_status  – код помилки (за замовчуванням 503)
+  reset=1       – повернути все до нуля і скинути лічильники
+GET /__stub/stats – кількість запитів, помилок, повільних відповідей і максимум одночасних запитів.
+"""
+import json
+import random
+import sys
+import threading
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+DEFAULTS = {"latency_ms": 0.0, "jitter_ms": 0.0, "slow_rate": 0.0, "slow_ms": 0.0, "error_rate": 0.0, "error_status": 503}
+
+lock = threading.Lock()
+config = dict(DEFAULTS)
+stats = {"requests": 0, "errors": 0, "slow": 0, "in_flight": 0, "max_in_flight": 0}
+
+CURRENCIES = [(840, "Долар США", "USD", 41.25), (978, "Євро", "EUR", 44.87), (985, "Злотий", "PLN", 10.42),
+              (826, "Фунт стерлінгів", "GBP", 53.11), (756, "Швейцарський франк", "CHF", 47.95)]
+
+
+def nbu_json():
+    return json.dumps([{"r030": r030, "txt": txt, "rate": rate, "cc": cc, "exchangedate": "18.10.2026"}
+                       for r030, txt, cc, rate in CURRENCIES], ensure_ascii=False)
+
+
+def nbu_xml():
+    items = "".join("<currency><r030>%d</r030><txt>%s</txt><rate>%s</rate><cc>%s</cc><exchangedate>18.10.2026"
+                    "</exchangedate></currency>" % (r030, txt, rate, cc) for r030, txt, cc, rate in CURRENCIES)
+    return '<?xml version="1.0" encoding="utf-8"?><exchange>%s</exchange>' % items
+
+
+def cmc_map(symbols):
+    wanted = [s for s in (symbols or "BTC,ETH,USDT").split(",") if s]
+    data = [{"id": i + 1, "rank": i + 1, "name": s.title(), "symbol": s, "slug": s.lower(), "is_active": 1}
+            for i, s in enumerate(wanted)]
+    return json.dumps({"status": {"error_code": 0, "error_message": None}, "data": data})
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_GET(self):
+        url = urlparse(self.path)
+        query = parse_qs(url.query, keep_blank_values=True)
+        if url.path == "/__stub/config":
+            self.configure(query)
+        elif url.path == "/__stub/stats":
+            with lock:
+                self.reply(200, "application/json", json.dumps(stats))
+        elif url.path == "/NBUStatService/v1/statdirectory/exchange":
+            self.upstream(lambda: ("application/json", nbu_json()) if "json" in query else ("text/xml", nbu_xml()))
+        elif url.path == "/v1/cryptocurrency/map":
+            self.upstream(lambda: ("application/json", cmc_map(query.get("symbol", [None])[0])))
+        else:
+            self.reply(404, "text/plain", "not found")
+
+    def configure(self, query):
+        with lock:
+            if "reset" in query:
+                config.update(DEFAULTS)
+                for key in stats:
+                    stats[key] = 0 if key != "in_flight" else stats[key]
+            for key in DEFAULTS:
+                if key in query:
+                    config[key] = type(DEFAULTS[key])(float(query[key][0]))
+            self.reply(200, "application/json", json.dumps(config))
+
+    def upstream(self, body):
+        with lock:
+            current = dict(config)
+            stats["requests"] += 1
+            stats["in_flight"] += 1
+            stats["max_in_flight"] = max(stats["max_in_flight"], stats["in_flight"])
+        try:
+            delay = current["latency_ms"] + random.random() * current["jitter_ms"]
+            if random.random() < current["slow_rate"]:
+                delay += current["slow_ms"]
+                with lock:
+                    stats["slow"] += 1
+            time.sleep(delay / 1000.0)
+            if random.random() < current["error_rate"]:
+                with lock:
+                    stats["errors"] += 1
+                self.reply(current["error_status"], "application/json", '{"status":{"error_code":500}}')
+                return
+            content_type, payload = body()
+            self.reply(200, content_type, payload)
+        finally:
+            with lock:
+                stats["in_flight"] -= 1
+
+    def reply(self, status, content_type, payload):
+        data = payload.encode("utf-8")
+        self.send_response(status)
+        self.send_header("Content-Type", content_type + "; charset=utf-8")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        self.wfile.write(data)
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+if __name__ == "__main__":
+    port = int(sys.argv[1]) if len(sys.argv) > 1 else 18090
+    server = ThreadingHTTPServer(("127.0.0.1", port), Handler)
+    server.daemon_threads = True
+    print("upstream stub on http://127.0.0.1:%d" % port, flush=True)
+    server.serve_forever()
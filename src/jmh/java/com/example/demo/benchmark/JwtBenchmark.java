@@ -0,0 +1,62 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.JwtKeyRing;
+import com.example.demo.config.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtil: випуск токена, extractUserName і validateToken.
+ * cacheSize=0 – кожен виклик перевіряє HMAC і розбирає JSON, 10000 – з кешем перевірених токенів.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final String SECRET = "U29tZXN1cGVyc2VjcmV0a2V5Zm9ySlhUVG9rZW5zMTIzNDU2";
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new JwtKeyRing(JwtKeyRing.DEFAULT_KEY_ID, SECRET, 2, ""), cacheSize,
+                Duration.ofMinutes(15), Duration.ofDays(7));
+        token = jwtUtil.generateToken("benchmark-user", Collections.singletonList("USER"));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark-user", Collections.singletonList("USER"));
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtUtil.extractUserName(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, "benchmark-user");
+    }
+}
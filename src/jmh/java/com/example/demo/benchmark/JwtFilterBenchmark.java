@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.JwtFilter;
+import com.example.demo.config.JwtKeyRing;
+import com.example.demo.config.JwtUtil;
+import com.example.demo.config.ReadWriteRoutingDataSource;
+import com.example.demo.config.TokenRevocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повний прохід JwtFilter з порожнім FilterChain. UserDetailsService – заглушка в пам'яті,
+ * тож міряється лише сам фільтр: розбір заголовка, перевірка токена, побудова Authentication.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private JwtFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing(JwtKeyRing.DEFAULT_KEY_ID, JwtBenchmark.SECRET, 2, ""), cacheSize,
+                Duration.ofMinutes(15), Duration.ofDays(7));
+        UserDetails user = User.withUsername("benchmark-user").password("{noop}secret").roles("USER").build();
+        // Порожній набір відкликань без БД: на гарячому шляху лише перевірка Bloom-фільтра
+        TokenRevocationStore revocations = new TokenRevocationStore(null, null, null,
+                new StaticListableBeanFactory().getBeanProvider(ReadWriteRoutingDataSource.class), 100_000, 0.01,
+                Duration.ofSeconds(60), Duration.ofSeconds(30), Duration.ofDays(7));
+        filter = new JwtFilter(jwtUtil, username -> user, revocations, stateless, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/students");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("benchmark-user", Collections.singletonList("USER")));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
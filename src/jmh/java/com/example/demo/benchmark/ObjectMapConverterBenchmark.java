@@ -0,0 +1,69 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.Demo5Application.ConveyorOchReqODTO;
+import com.example.demo.service.ObjectMapConverter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ObjectMapConverter проти попередньої реалізації Demo5Application.convertObjectToMap
+ * (valueToTree + convertValue) на ConveyorOchReqODTO, в обидва боки.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObjectMapConverterBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private ObjectMapper objectMapper;
+    private ObjectMapConverter converter;
+    private ConveyorOchReqODTO dto;
+    private Map<String, Object> map;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        converter = new ObjectMapConverter(objectMapper);
+        dto = ConveyorOchReqODTO.builder().type("OCH").obj("contract").ref("REF-0001").convId("1234567").build();
+        map = converter.toMap(dto);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMapJsonNodeRoundTrip() {
+        JsonNode jsonNode = objectMapper.valueToTree(dto);
+        return objectMapper.convertValue(jsonNode, MAP_TYPE);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMapConverter() {
+        return converter.toMap(dto);
+    }
+
+    @Benchmark
+    public ConveyorOchReqODTO fromMapConvertValue() {
+        return objectMapper.convertValue(map, ConveyorOchReqODTO.class);
+    }
+
+    @Benchmark
+    public ConveyorOchReqODTO fromMapConverter() {
+        return converter.fromMap(map, ConveyorOchReqODTO.class);
+    }
+}
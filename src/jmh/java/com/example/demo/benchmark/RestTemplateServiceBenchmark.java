@@ -0,0 +1,74 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.UpstreamResilienceProperties;
+import com.example.demo.service.RestTemplateService;
+import com.example.demo.service.UpstreamResilience;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// RestTemplateService.buildUrl і jsonToObjectConverter на параметрах і відповіді у форматі CoinMarketCap /cryptocurrency/map
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestTemplateServiceBenchmark {
+
+    private static final String URL = "https://pro-api.coinmarketcap.com/v1/cryptocurrency/map";
+
+    private RestTemplateService service;
+    private Map<String, String> params;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        service = new RestTemplateService(new RestTemplate(), new ObjectMapper(),
+                new UpstreamResilience(new UpstreamResilienceProperties(), new SimpleMeterRegistry(), false), 1, 1, false);
+        params = new LinkedHashMap<>();
+        params.put("listingStatus", "active");
+        params.put("symbol", "USDT,USDC,ETH");
+        StringBuilder builder = new StringBuilder("{\"status\":{\"error_code\":0},\"data\":[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i).append(",\"rank\":").append(i + 1)
+                    .append(",\"name\":\"Coin ").append(i).append("\",\"symbol\":\"C").append(i)
+                    .append("\",\"slug\":\"coin-").append(i).append("\",\"is_active\":1}");
+        }
+        json = builder.append("]}").toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public String buildUrl() {
+        return RestTemplateService.buildUrl(URL, params);
+    }
+
+    @Benchmark
+    public JsonNode jsonToObjectConverter() {
+        return service.jsonToObjectConverter(json, JsonNode.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Наскрізний навантажувальний тест сценаріїв входу і студентів проти запущеного застосунку.
+ *
+ *   LoadTest [--base-url=... --rates=50,100,200 --duration=30s ...]   прогін, звіт у target/load-test/<label>/
+ *   LoadTest compare base/report.json candidate/report.json            різниця двох прогонів
+ *
+ * Підготовка (користувачі, токени, стартові студенти) в результати не потрапляє.
+ * Повний цикл із БД і заглушками зовнішніх API – scripts/load-test.sh.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "compare".equals(args[0])) {
+            if (args.length != 3) {
+                throw new IllegalArgumentException("Використання: compare <base/report.json> <candidate/report.json>");
+            }
+            LoadTestReport.compare(Path.of(args[1]), Path.of(args[2]), System.out);
+            return;
+        }
+        LoadTestOptions options = LoadTestOptions.parse(Arrays.asList(args));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "load-test-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout)
+                .executor(executor)
+                .build();
+        Workload workload = new Workload(options.baseUrl, options.timeout, options.mix, options.users);
+
+        waitForApplication(client, workload, options);
+        login(client, workload);
+        seedStudents(client, workload, options.seedStudents);
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("processors", Runtime.getRuntime().availableProcessors());
+        environment.put("studentsAtStart", studentsTotal(client, workload));
+
+        OpenModelRunner runner = new OpenModelRunner(client, workload, options);
+        if (!options.warmup.isZero()) {
+            System.out.printf("Прогрів: %s/с протягом %s%n", options.rates.get(0), options.warmup);
+            runner.run(options.rates.get(0), options.warmup);
+        }
+        List<OpenModelRunner.Step> steps = new ArrayList<>();
+        for (double rate : options.rates) {
+            // Access-токен живе 15 хв – оновлюємо перед кожною сходинкою, щоб довгий прогін не впирався в 401
+            login(client, workload);
+            System.out.printf("Сходинка: %s/с протягом %s%n", rate, options.duration);
+            steps.add(runner.run(rate, options.duration));
+        }
+        Path dir = LoadTestReport.write(options, environment, steps);
+        System.out.println("Звіт: " + dir.toAbsolutePath());
+        executor.shutdownNow();
+    }
+
+    private static void waitForApplication(HttpClient client, Workload workload, LoadTestOptions options)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest health = options.healthUrl == null
+                ? workload.builder("/actuator/health").GET().build()
+                : HttpRequest.newBuilder(options.healthUrl).timeout(options.timeout).GET().build();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Ще не слухає порт
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException("Застосунок не відповів 200 на " + health.uri() + " за " + STARTUP_TIMEOUT);
+    }
+
+    // Перший вхід створює користувача; 429/503 від обмежувачів навантаження – повторюємо
+    private static void login(HttpClient client, Workload workload) throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>();
+        for (String user : workload.users()) {
+            HttpResponse<String> response = sendWithRetry(client, workload.login(user));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Вхід " + user + ": HTTP " + response.statusCode() + " " + response.body());
+            }
+            tokens.add(MAPPER.readTree(response.body()).path("accessToken").asText());
+        }
+        workload.tokens(tokens);
+    }
+
+    // Стартовий обсяг таблиці, щоб list і page читали не порожню таблицю; одним пакетом через /students/batch
+    private static void seedStudents(HttpClient client, Workload workload, int count) throws IOException, InterruptedException {
+        if (count <= 0) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(count);
+        StringBuilder csv = new StringBuilder("first_name,last_name,class_number\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("Seed").append(i).append(",Loadtest").append(random.nextInt(1000))
+                    .append(',').append(1 + random.nextInt(11)).append('\n');
+        }
+        HttpRequest request = workload.builder("/students/batch")
+                .timeout(Duration.ofMinutes(2))
+                .header("Authorization", "Bearer " + workload.token())
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build();
+        HttpResponse<String> response = sendWithRetry(client, request);
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Завантаження студентів: HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static long studentsTotal(HttpClient client, Workload workload) throws IOException, InterruptedException {
+        HttpRequest request = workload.builder("/students/stats")
+                .header("Authorization", "Bearer " + workload.token())
+                .GET()
+                .build();
+        HttpResponse<String> response = sendWithRetry(client, request);
+        JsonNode stats = response.statusCode() == 200 ? MAPPER.readTree(response.body()) : null;
+        return stats == null ? -1 : stats.path("total").asLong(-1);
+    }
+
+    private static HttpResponse<String> sendWithRetry(HttpClient client, HttpRequest request)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = null;
+        for (int attempt = 0; attempt < 10; attempt++) {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 429 && response.statusCode() != 503) {
+                return response;
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            TimeUnit.SECONDS.sleep(Math.max(1, Math.min(retryAfter, 10)));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметри прогону з аргументів виду --name=value. Усе, що впливає на результат, потрапляє у звіт,
+ * щоб два звіти можна було порівнювати лише за однакових параметрів.
+ */
+final class LoadTestOptions {
+
+    URI baseUrl = URI.create("http://localhost:8081");
+    // null – <base-url>/actuator/health; інша адреса, якщо actuator винесено на management.server.port
+    URI healthUrl;
+    // Сходинки частоти (запитів/с на весь застосунок), кожна триває duration
+    List<Double> rates = new ArrayList<>(List.of(50.0, 100.0, 200.0));
+    Duration duration = Duration.ofSeconds(30);
+    // Прогрів JIT, пулів і кешів на першій сходинці; в звіт не йде
+    Duration warmup = Duration.ofSeconds(15);
+    Map<Scenario, Integer> mix = parseMix("login:10,list:60,create:30");
+    // poisson – експоненційні інтервали (незалежні клієнти), uniform – рівні інтервали
+    String arrival = "poisson";
+    long seed = 42;
+    int users = 20;
+    int seedStudents = 1000;
+    Duration timeout = Duration.ofSeconds(10);
+    // Запобіжник генератора: понад стільки незавершених запитів нові не відправляються і рахуються як dropped
+    int maxInFlight = 5000;
+    String label = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+    String out = "target/load-test";
+
+    static LoadTestOptions parse(List<String> args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Очікується --name=value, отримано: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "base-url":
+                    options.baseUrl = URI.create(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+                    break;
+                case "health-url":
+                    options.healthUrl = URI.create(value);
+                    break;
+                case "rates":
+                    options.rates = new ArrayList<>();
+                    for (String rate : value.split(",")) {
+                        options.rates.add(Double.parseDouble(rate.trim()));
+                    }
+                    break;
+                case "duration":
+                    options.duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "warmup":
+                    options.warmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "arrival":
+                    if (!"poisson".equals(value) && !"uniform".equals(value)) {
+                        throw new IllegalArgumentException("--arrival: poisson або uniform");
+                    }
+                    options.arrival = value;
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "seed-students":
+                    options.seedStudents = Integer.parseInt(value);
+                    break;
+                case "timeout":
+                    options.timeout = DurationStyle.detectAndParse(value);
+                    break;
+                case "max-in-flight":
+                    options.maxInFlight = Integer.parseInt(value);
+                    break;
+                case "label":
+                    options.label = value;
+                    break;
+                case "out":
+                    options.out = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Невідомий параметр --" + name);
+            }
+        }
+        if (options.rates.isEmpty() || options.users < 1) {
+            throw new IllegalArgumentException("Потрібні хоча б одна частота в --rates і --users >= 1");
+        }
+        return options;
+    }
+
+    // "login:10,list:60,create:30" – відносні ваги сценаріїв; відсутній сценарій має вагу 0
+    static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("--mix: очікується scenario:weight, отримано " + part);
+            }
+            mix.put(Scenario.of(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix: сума ваг має бути додатною");
+        }
+        return mix;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("baseUrl", baseUrl.toString());
+        result.put("rates", rates);
+        result.put("durationSeconds", duration.toMillis() / 1000.0);
+        result.put("warmupSeconds", warmup.toMillis() / 1000.0);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((scenario, weight) -> weights.put(scenario.key(), weight));
+        result.put("mix", weights);
+        result.put("arrival", arrival);
+        result.put("seed", seed);
+        result.put("users", users);
+        result.put("seedStudents", seedStudents);
+        result.put("timeoutSeconds", timeout.toMillis() / 1000.0);
+        result.put("maxInFlight", maxInFlight);
+        return result;
+    }
+}
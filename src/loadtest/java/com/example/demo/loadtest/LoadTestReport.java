@@ -0,0 +1,229 @@
+package com.example.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Звіт прогону: report.json (для порівняння між прогонами), report.txt (те саме таблицею)
+ * і повні розподіли латентності histograms/<rate>-<scenario>.hgrm у форматі HdrHistogram
+ * (відкриваються HistogramLogAnalyzer або plotFiles.html з репозиторію HdrHistogram).
+ * compare(base, candidate) друкує різницю двох report.json за сходинками і сценаріями.
+ */
+final class LoadTestReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final double[] PERCENTILES = {50, 75, 90, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p75", "p90", "p99", "p99.9", "p99.99"};
+    private static final String ALL = "all";
+
+    private LoadTestReport() {
+    }
+
+    static Path write(LoadTestOptions options, Map<String, Object> environment, List<OpenModelRunner.Step> steps)
+            throws IOException {
+        Path dir = Path.of(options.out, options.label);
+        Files.createDirectories(dir.resolve("histograms"));
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label);
+        report.put("finishedAt", Instant.now().toString());
+        report.put("options", options.describe());
+        report.put("environment", environment);
+        List<Map<String, Object>> stepReports = new ArrayList<>();
+        for (OpenModelRunner.Step step : steps) {
+            Map<String, Object> stepReport = new LinkedHashMap<>();
+            stepReport.put("targetRate", step.targetRate);
+            stepReport.put("seconds", round(step.seconds));
+            stepReport.put("scheduled", step.scheduled);
+            stepReport.put("achievedRate", round(step.scheduled / step.seconds));
+            stepReport.put("maxScheduleLagMillis", round(step.maxScheduleLagMillis));
+            Map<String, Object> scenarios = new LinkedHashMap<>();
+            Histogram allResponse = new Histogram(ScenarioStats.HIGHEST_MICROS, 3);
+            Histogram allService = new Histogram(ScenarioStats.HIGHEST_MICROS, 3);
+            long allSuccesses = 0;
+            long allFailures = 0;
+            Map<String, Long> allOutcomes = new TreeMap<>();
+            for (Map.Entry<Scenario, ScenarioStats> entry : step.scenarios.entrySet()) {
+                ScenarioStats stats = entry.getValue();
+                scenarios.put(entry.getKey().key(), summarize(stats.responseHistogram(), stats.serviceHistogram(),
+                        stats.successes(), stats.failures(), stats.outcomes(), step.seconds));
+                writeHistogram(dir, step, entry.getKey().key(), stats.responseHistogram());
+                allResponse.add(stats.responseHistogram());
+                allService.add(stats.serviceHistogram());
+                allSuccesses += stats.successes();
+                allFailures += stats.failures();
+                stats.outcomes().forEach((outcome, count) -> allOutcomes.merge(outcome, count, Long::sum));
+            }
+            scenarios.put(ALL, summarize(allResponse, allService, allSuccesses, allFailures, allOutcomes, step.seconds));
+            writeHistogram(dir, step, ALL, allResponse);
+            stepReport.put("scenarios", scenarios);
+            stepReports.add(stepReport);
+        }
+        report.put("steps", stepReports);
+        MAPPER.writeValue(dir.resolve("report.json").toFile(), report);
+        JsonNode written = MAPPER.valueToTree(report);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve("report.txt")), true, StandardCharsets.UTF_8)) {
+            printTable(written, out);
+        }
+        printTable(written, System.out);
+        return dir;
+    }
+
+    static void compare(Path base, Path candidate, PrintStream out) throws IOException {
+        JsonNode baseReport = MAPPER.readTree(base.toFile());
+        JsonNode candidateReport = MAPPER.readTree(candidate.toFile());
+        out.printf("base: %s   candidate: %s%n", baseReport.path("label").asText(), candidateReport.path("label").asText());
+        JsonNode baseOptions = withoutRunSpecific(baseReport.path("options"));
+        JsonNode candidateOptions = withoutRunSpecific(candidateReport.path("options"));
+        if (!baseOptions.equals(candidateOptions)) {
+            out.println("УВАГА: параметри прогонів відрізняються, порівняння може бути некоректним");
+            out.println("  base:      " + baseOptions);
+            out.println("  candidate: " + candidateOptions);
+        }
+        out.printf("%-8s %-8s %-14s %12s %12s %9s%n", "rate", "scenario", "metric", "base", "candidate", "change");
+        for (JsonNode candidateStep : candidateReport.path("steps")) {
+            JsonNode baseStep = findStep(baseReport, candidateStep.path("targetRate").asDouble());
+            if (baseStep == null) {
+                continue;
+            }
+            Iterator<String> names = candidateStep.path("scenarios").fieldNames();
+            while (names.hasNext()) {
+                String scenario = names.next();
+                JsonNode b = baseStep.path("scenarios").path(scenario);
+                JsonNode c = candidateStep.path("scenarios").path(scenario);
+                if (b.isMissingNode()) {
+                    continue;
+                }
+                String rate = format(candidateStep.path("targetRate").asDouble());
+                compareLine(out, rate, scenario, "throughput/s", b.path("throughput"), c.path("throughput"));
+                compareLine(out, rate, scenario, "errors %", b.path("errorRate"), c.path("errorRate"));
+                for (String key : new String[]{"p50", "p99", "p99.9", "p99.99", "max"}) {
+                    compareLine(out, rate, scenario, key + " ms", b.path("latencyMs").path(key), c.path("latencyMs").path(key));
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> summarize(Histogram response, Histogram service, long successes, long failures,
+                                                 Map<String, Long> outcomes, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long count = successes + failures;
+        summary.put("count", count);
+        summary.put("throughput", round(successes / seconds));
+        summary.put("errorRate", count == 0 ? 0 : round(100.0 * failures / count));
+        summary.put("outcomes", outcomes);
+        summary.put("latencyMs", latency(response));
+        summary.put("serviceTimeMs", latency(service));
+        return summary;
+    }
+
+    private static Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        if (histogram.getTotalCount() == 0) {
+            return latency;
+        }
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            latency.put(PERCENTILE_KEYS[i], millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        latency.put("max", millis(histogram.getMaxValue()));
+        latency.put("mean", round(histogram.getMean() / 1000.0));
+        return latency;
+    }
+
+    private static void printTable(JsonNode report, PrintStream out) {
+        out.printf("Прогін %s, %s%n", report.path("label").asText(), report.path("options"));
+        for (JsonNode step : report.path("steps")) {
+            out.printf("%nЧастота %s/с: фактично %s/с за %s с, запланованих запитів %d, макс. відставання генератора %s мс%n",
+                    format(step.path("targetRate").asDouble()), format(step.path("achievedRate").asDouble()),
+                    format(step.path("seconds").asDouble()), step.path("scheduled").asLong(),
+                    format(step.path("maxScheduleLagMillis").asDouble()));
+            out.printf("%-8s %8s %10s %8s", "scenario", "count", "ok/s", "err %");
+            for (String key : PERCENTILE_KEYS) {
+                out.printf(" %9s", key);
+            }
+            out.printf(" %9s  %s%n", "max", "outcomes");
+            Iterator<Map.Entry<String, JsonNode>> scenarios = step.path("scenarios").fields();
+            while (scenarios.hasNext()) {
+                Map.Entry<String, JsonNode> entry = scenarios.next();
+                JsonNode s = entry.getValue();
+                out.printf("%-8s %8d %10s %8s", entry.getKey(), s.path("count").asLong(),
+                        format(s.path("throughput").asDouble()), format(s.path("errorRate").asDouble()));
+                for (String key : PERCENTILE_KEYS) {
+                    out.printf(" %9s", format(s.path("latencyMs").path(key).asDouble()));
+                }
+                out.printf(" %9s  %s%n", format(s.path("latencyMs").path("max").asDouble()), s.path("outcomes"));
+            }
+        }
+        out.println();
+        out.println("Латентність у мс від запланованого моменту відправки (з поправкою на coordinated omission)");
+    }
+
+    private static void writeHistogram(Path dir, OpenModelRunner.Step step, String scenario, Histogram histogram)
+            throws IOException {
+        Path file = dir.resolve("histograms").resolve(format(step.targetRate) + "-" + scenario + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            // Значення записані в мікросекундах, у файлі – мілісекунди
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static void compareLine(PrintStream out, String rate, String scenario, String metric, JsonNode base, JsonNode candidate) {
+        if (base.isMissingNode() || candidate.isMissingNode()) {
+            return;
+        }
+        double b = base.asDouble();
+        double c = candidate.asDouble();
+        String change = b == 0 ? (c == 0 ? "0%" : "n/a") : String.format(Locale.ROOT, "%+.1f%%", 100.0 * (c - b) / b);
+        out.printf("%-8s %-8s %-14s %12s %12s %9s%n", rate, scenario, metric, format(b), format(c), change);
+    }
+
+    private static JsonNode findStep(JsonNode report, double targetRate) {
+        for (JsonNode step : report.path("steps")) {
+            if (step.path("targetRate").asDouble() == targetRate) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    // Адреса застосунку в кожного прогону своя – на порівнянність не впливає
+    private static JsonNode withoutRunSpecific(JsonNode options) {
+        JsonNode copy = options.deepCopy();
+        if (copy.isObject()) {
+            ((ObjectNode) copy).remove("baseUrl");
+        }
+        return copy;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String format(double value) {
+        if (Objects.equals(value, Math.rint(value)) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.loadtest;
+
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Відкрита модель навантаження: запити відправляються за розкладом із заданою частотою незалежно від того,
+ * чи встиг застосунок відповісти на попередні (як від багатьох незалежних клієнтів). Закрита модель
+ * (N потоків, кожен чекає відповіді) під час деградації сама знижує частоту і ховає хвіст латентності.
+ * Розклад веде один потік; відповіді обробляються асинхронно на потоках HttpClient.
+ */
+final class OpenModelRunner {
+
+    private final HttpClient client;
+    private final Workload workload;
+    private final LoadTestOptions options;
+    // Використовується лише потоком розкладу
+    private final SplittableRandom random;
+
+    OpenModelRunner(HttpClient client, Workload workload, LoadTestOptions options) {
+        this.client = client;
+        this.workload = workload;
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+    }
+
+    Step run(double rate, Duration duration) {
+        Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+        options.mix.forEach((scenario, weight) -> {
+            if (weight > 0) {
+                stats.put(scenario, new ScenarioStats());
+            }
+        });
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        long scheduled = 0;
+        long maxLagNanos = 0;
+        while (intended < end) {
+            long now = System.nanoTime();
+            if (intended > now) {
+                LockSupport.parkNanos(intended - now);
+            } else {
+                maxLagNanos = Math.max(maxLagNanos, now - intended);
+            }
+            Scenario scenario = workload.pick(random);
+            fire(workload.request(scenario, random), intended, stats.get(scenario), inFlight);
+            scheduled++;
+            intended += (long) nextInterval(meanIntervalNanos);
+        }
+        long scheduleEnd = System.nanoTime();
+        // Чекаємо відповіді на вже відправлені запити: вони належать цій сходинці
+        long drainDeadline = scheduleEnd + options.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        stats.values().forEach(ScenarioStats::finish);
+        return new Step(rate, (scheduleEnd - start) / 1e9, scheduled, maxLagNanos / 1e6, stats);
+    }
+
+    private void fire(HttpRequest request, long intended, ScenarioStats stats, AtomicInteger inFlight) {
+        if (inFlight.incrementAndGet() > options.maxInFlight) {
+            inFlight.decrementAndGet();
+            stats.dropped();
+            return;
+        }
+        long sent = System.nanoTime();
+        try {
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long completed = System.nanoTime();
+                inFlight.decrementAndGet();
+                if (error != null) {
+                    stats.record(intended, sent, completed, classify(error), false);
+                } else {
+                    int status = response.statusCode();
+                    stats.record(intended, sent, completed, String.valueOf(status), status < 400);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            stats.record(intended, sent, System.nanoTime(), classify(e), false);
+        }
+    }
+
+    private double nextInterval(double meanNanos) {
+        if ("uniform".equals(options.arrival)) {
+            return meanNanos;
+        }
+        // Експоненційний розподіл інтервалів = пуассонівський потік запитів
+        return -Math.log(1 - random.nextDouble()) * meanNanos;
+    }
+
+    private static String classify(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpConnectTimeoutException || cause instanceof ConnectException) {
+            return "connect";
+        }
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return "io";
+    }
+
+    // Результат однієї сходинки частоти
+    static final class Step {
+        final double targetRate;
+        final double seconds;
+        final long scheduled;
+        // Найбільше відставання генератора від розкладу; якщо воно співмірне з латентністю, генератор – вузьке місце
+        final double maxScheduleLagMillis;
+        final Map<Scenario, ScenarioStats> scenarios;
+
+        Step(double targetRate, double seconds, long scheduled, double maxScheduleLagMillis,
+             Map<Scenario, ScenarioStats> scenarios) {
+            this.targetRate = targetRate;
+            this.seconds = seconds;
+            this.scheduled = scheduled;
+            this.maxScheduleLagMillis = maxScheduleLagMillis;
+            this.scenarios = scenarios;
+        }
+    }
+}
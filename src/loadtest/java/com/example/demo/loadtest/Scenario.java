@@ -0,0 +1,35 @@
+package com.example.demo.loadtest;
+
+import java.util.Locale;
+
+// Типи запитів у суміші навантаження; key – ім'я в --mix і у звіті
+enum Scenario {
+
+    // POST /auth/login: bcrypt на PasswordHashingService, UserDetailsCache, видача пари токенів
+    LOGIN("login"),
+    // GET /students: JwtFilter, повний список потоком із JDBC-курсора або з StudentReadCache
+    LIST("list"),
+    // GET /students?limit=50: keyset-сторінка, один короткий запит до пулу Hikari
+    PAGE("page"),
+    // POST /students: запис у БД, оновлення індексу пошуку, статистики і версії кешу списку
+    CREATE("create");
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Scenario of(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key.toLowerCase(Locale.ROOT))) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Невідомий сценарій: " + key);
+    }
+}
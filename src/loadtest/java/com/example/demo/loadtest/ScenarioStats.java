@@ -0,0 +1,80 @@
+package com.example.demo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результати одного сценарію на одній сходинці. Латентність у мікросекундах, 3 значущі цифри.
+ * response – від запланованого моменту відправки до відповіді (з поправкою на coordinated omission:
+ * якщо генератор чи застосунок не встигає, очікування в черзі теж потрапляє в латентність),
+ * service – від фактичної відправки до відповіді.
+ * Recorder дозволяє записувати з потоків HttpClient без блокувань.
+ */
+final class ScenarioStats {
+
+    static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Recorder response = new Recorder(1, HIGHEST_MICROS, 3);
+    private final Recorder service = new Recorder(1, HIGHEST_MICROS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    // Код відповіді, "timeout", "connect", "io" або "dropped" -> кількість
+    private final ConcurrentHashMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    private Histogram responseHistogram;
+    private Histogram serviceHistogram;
+
+    void record(long intendedNanos, long sentNanos, long completedNanos, String outcome, boolean success) {
+        response.recordValue(micros(completedNanos - intendedNanos));
+        service.recordValue(micros(completedNanos - sentNanos));
+        count(outcome, success);
+    }
+
+    // Запит не відправлено – генератор уперся в --max-in-flight
+    void dropped() {
+        count("dropped", false);
+    }
+
+    // Викликається один раз після завершення сходинки, коли всі відповіді вже записані
+    void finish() {
+        responseHistogram = response.getIntervalHistogram();
+        serviceHistogram = service.getIntervalHistogram();
+    }
+
+    Histogram responseHistogram() {
+        return responseHistogram;
+    }
+
+    Histogram serviceHistogram() {
+        return serviceHistogram;
+    }
+
+    long successes() {
+        return successes.sum();
+    }
+
+    long failures() {
+        return failures.sum();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> result = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> result.put(outcome, count.sum()));
+        return result;
+    }
+
+    private void count(String outcome, boolean success) {
+        (success ? successes : failures).increment();
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(1, Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
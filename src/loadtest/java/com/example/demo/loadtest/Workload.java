@@ -0,0 +1,99 @@
+package com.example.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Суміш запитів: вибір сценарію за вагами і побудова HTTP-запиту до нього.
+ * Користувачі loadtest-0..N-1 (пароль = ім'я) створюються під час підготовки; їхні токени
+ * використовуються по колу для /students. Вибір детермінований seed генератора, тож однакові
+ * параметри дають однакову послідовність сценаріїв.
+ */
+final class Workload {
+
+    private static final String[] FIRST_NAMES = {"Олена", "Андрій", "Марія", "Тарас", "Ірина", "Богдан", "Софія", "Олег"};
+    private static final String[] LAST_NAMES = {"Шевченко", "Коваленко", "Бондаренко", "Ткаченко", "Кравчук", "Мельник", "Лисенко"};
+
+    private final URI baseUrl;
+    private final Duration timeout;
+    private final Scenario[] weighted;
+    private final List<String> users = new ArrayList<>();
+    private final AtomicLong created = new AtomicLong();
+    private volatile String[] tokens = new String[0];
+
+    Workload(URI baseUrl, Duration timeout, Map<Scenario, Integer> mix, int users) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        List<Scenario> table = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(scenario);
+            }
+        });
+        this.weighted = table.toArray(new Scenario[0]);
+        for (int i = 0; i < users; i++) {
+            this.users.add("loadtest-" + i);
+        }
+    }
+
+    List<String> users() {
+        return users;
+    }
+
+    void tokens(List<String> tokens) {
+        this.tokens = tokens.toArray(new String[0]);
+    }
+
+    // Токен для службових запитів підготовки
+    String token() {
+        return tokens[0];
+    }
+
+    Scenario pick(SplittableRandom random) {
+        return weighted[random.nextInt(weighted.length)];
+    }
+
+    HttpRequest request(Scenario scenario, SplittableRandom random) {
+        switch (scenario) {
+            case LOGIN:
+                return login(users.get(random.nextInt(users.size())));
+            case LIST:
+                return authorized(random, "/students").GET().build();
+            case PAGE:
+                return authorized(random, "/students?limit=50").GET().build();
+            case CREATE:
+                long n = created.incrementAndGet();
+                String body = "{\"firstName\":\"" + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                        + "\",\"lastName\":\"" + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + n
+                        + "\",\"classNumber\":" + (1 + random.nextInt(11)) + "}";
+                return authorized(random, "/students")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            default:
+                throw new IllegalStateException("Сценарій без запиту: " + scenario);
+        }
+    }
+
+    HttpRequest login(String user) {
+        return builder("/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + user + "\",\"password\":\"" + user + "\"}"))
+                .build();
+    }
+
+    HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+    }
+
+    private HttpRequest.Builder authorized(SplittableRandom random, String path) {
+        String[] current = tokens;
+        return builder(path).header("Authorization", "Bearer " + current[random.nextInt(current.length)]);
+    }
+}
@@ -1,9 +1,7 @@
 package com.example.demo;
 
+import com.example.demo.service.ObjectMapConverter;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
 import lombok.AllArgsConstructor;
@@ -22,7 +20,7 @@ import java.util.Map;
 public class Demo5Application {
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ObjectMapConverter objectMapConverter;
 
     public static void main(String[] args) {
         SpringApplication.run(Demo5Application.class, args);
@@ -30,14 +28,9 @@ public class Demo5Application {
 
     }
 
+    // Один прохід по заздалегідь підготовлених аксесорах замість valueToTree + convertValue
     private Map<String, Object> convertObjectToMap(Object dataForConveyor) {
-        try {
-            JsonNode jsonNode = this.objectMapper.valueToTree(dataForConveyor);
-            Map<String, Object> result = this.objectMapper.convertValue(jsonNode, new TypeReference<Map<String, Object>>() {});
-            return result;
-        } catch (Throwable var4) {
-            throw var4;
-        }
+        return this.objectMapConverter.toMap(dataForConveyor);
     }
 
     @Data
@@ -0,0 +1,110 @@
+package com.example.demo.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ліміт одночасних запитів, що підлаштовується під latency (градієнтний алгоритм на кшталт Netflix Gradient).
+ * Раз на вікно середня latency вікна порівнюється з latency без навантаження (мінімум за вікнами, що повільно
+ * дрейфує вгору, щоб перевчитись після зміни бази): якщо запити сповільнились більш ніж у RTT_TOLERANCE разів,
+ * ліміт зменшується пропорційно, інакше росте на sqrt(ліміту). Відповіді 5xx і винятки – сигнал перевантаження, ліміт множиться на 0.9.
+ * Заміри збираються в LongAdder без локів, перерахунок робить один потік, що виграв CAS на початку вікна.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double NO_LOAD_RTT_DRIFT = 0.005;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder windowDrops = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private volatile double estimatedLimit;
+    private volatile int limit;
+    private volatile double noLoadRttNanos;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > windowMaxInFlight.get()) {
+                    windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    // dropped – запит завершився перевантаженням (5xx, виняток, таймаут); його latency в оцінку не йде
+    void release(long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            windowDrops.increment();
+        } else {
+            windowRttNanos.add(rttNanos);
+            windowSamples.increment();
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            update();
+        }
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update() {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttNanos.sumThenReset();
+        long drops = windowDrops.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        double current = estimatedLimit;
+        double next;
+        if (drops > 0) {
+            next = current * BACKOFF_RATIO;
+        } else if (samples == 0) {
+            return;
+        } else {
+            double shortRtt = (double) rttSum / samples;
+            double noLoadRtt = noLoadRttNanos == 0 || shortRtt < noLoadRttNanos
+                    ? shortRtt
+                    : noLoadRttNanos * (1 + NO_LOAD_RTT_DRIFT);
+            noLoadRttNanos = noLoadRtt;
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * noLoadRtt / shortRtt));
+            // Ліміт використовувався менш ніж наполовину – ріст нічим не підтверджений
+            if (gradient >= 1.0 && maxInFlight < current / 2) {
+                return;
+            }
+            next = current * (1 - SMOOTHING) + (current * gradient + Math.sqrt(current)) * SMOOTHING;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
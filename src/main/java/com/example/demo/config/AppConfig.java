@@ -1,27 +1,87 @@
 package com.example.demo.config;
 
+import io.micrometer.core.instrument.Tags;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTags;
+import org.springframework.boot.actuate.metrics.web.client.RestTemplateExchangeTagsProvider;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
+    // Пул keep-alive з'єднань: TLS-handshake до NBU/CoinMarketCap робиться один раз на з'єднання, а не на кожен запит
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${http.client.max-total:100}") int maxTotal,
+            @Value("${http.client.max-per-route:20}") int maxPerRoute,
+            @Value("${http.client.validate-after-inactivity:2000}") int validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager,
+                                          @Value("${http.client.connect-timeout:2000}") int connectTimeout,
+                                          @Value("${http.client.read-timeout:5000}") int readTimeout,
+                                          @Value("${http.client.pool-timeout:1000}") int poolTimeout,
+                                          @Value("${http.client.idle-timeout:30000}") long idleTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .setConnectionRequestTimeout(poolTimeout)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // RestTemplateBuilder додає таймер http.client.requests (host, uri, status) для всіх зовнішніх викликів
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate template = new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient httpClient) {
+        RestTemplate template = restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
         return template;
     }
 
+    // RestTemplateService викликає RestTemplate з готовим URI без шаблону – тоді Boot бере в тег uri весь URI
+    // разом із query (символи з /crypto/map), і кожне нове значення – нова серія з гістограмою, доки ліміт
+    // max-uri-tags не відкине всі нові таймери. Тег uri – шаблон або лише шлях, без query
+    @Bean
+    public RestTemplateExchangeTagsProvider restTemplateExchangeTagsProvider() {
+        return (urlTemplate, request, response) -> Tags.of(
+                RestTemplateExchangeTags.method(request),
+                RestTemplateExchangeTags.uri(urlTemplate != null ? urlTemplate : request.getURI().getRawPath()),
+                RestTemplateExchangeTags.status(response),
+                RestTemplateExchangeTags.clientName(request),
+                RestTemplateExchangeTags.outcome(response));
+    }
+
+    // Лише для запитів до CoinMarketCap (CachingRestClient); RestTemplateService іншим хостам їх не додає
     @Bean
-    public HttpHeaders httpHeaders(@Value("${coinmarketcap.api.key}") String apiKey) {
+    public HttpHeaders coinMarketCapHeaders(@Value("${coinmarketcap.api.key}") String apiKey) {
         HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
         httpHeaders.add("X-CMC_PRO_API_KEY", apiKey);
-        return httpHeaders;
+        return HttpHeaders.readOnlyHttpHeaders(httpHeaders);
     }
 
 }
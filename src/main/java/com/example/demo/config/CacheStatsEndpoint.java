@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import com.example.demo.service.CachingRestClient;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/cachestats[/users|/upstream] – розмір і влучання кешу UserDetails та кешу відповідей CoinMarketCap.
+// Доступ – як до решти actuator: на основному порту лише ADMIN, або окремий порт management
+@Component
+@Endpoint(id = "cachestats")
+public class CacheStatsEndpoint {
+
+    private final UserDetailsCache userDetailsCache;
+    private final CachingRestClient cachingRestClient;
+
+    public CacheStatsEndpoint(UserDetailsCache userDetailsCache, CachingRestClient cachingRestClient) {
+        this.userDetailsCache = userDetailsCache;
+        this.cachingRestClient = cachingRestClient;
+    }
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", userCacheStats());
+        result.put("upstream", upstreamCacheStats());
+        return result;
+    }
+
+    // null – 404 для невідомого імені
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        switch (name) {
+            case "users":
+                return userCacheStats();
+            case "upstream":
+                return upstreamCacheStats();
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Object> userCacheStats() {
+        CacheStats stats = userDetailsCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", userDetailsCache.size());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+
+    private Map<String, Object> upstreamCacheStats() {
+        CacheStats stats = cachingRestClient.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cachingRestClient.size());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("hitRate", stats.hitRate());
+        return result;
+    }
+}
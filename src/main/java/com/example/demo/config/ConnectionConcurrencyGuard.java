@@ -0,0 +1,161 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Обмежує кількість одночасно виданих з'єднань кожного пулу Hikari його maximum-pool-size.
+ * З віртуальними потоками запитів може бути тисячі, і без цього вони всі чекали б з'єднання всередині Hikari;
+ * тут зайві потоки паркуються на справедливому семафорі, а після connection-timeout пулу отримують швидку помилку.
+ * Дозвіл береться в getConnection() і повертається в Connection.close(), тож обмеження діє для всього,
+ * що бере з'єднання з DataSource: репозиторіїв, @Transactional-сервісів, JdbcTemplate, COPY і курсорів,
+ * які читаються потоком.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.db.guard.enabled", havingValue = "true")
+public class ConnectionConcurrencyGuard implements BeanPostProcessor, SmartInitializingSingleton {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final List<GuardedDataSource> guarded = new CopyOnWriteArrayList<>();
+
+    public ConnectionConcurrencyGuard(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Налаштування пулу вже прив'язані (@ConfigurationProperties відпрацьовує до ініціалізації)
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource)) {
+            return bean;
+        }
+        HikariDataSource pool = (HikariDataSource) bean;
+        GuardedDataSource dataSource = new GuardedDataSource(pool, beanName, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+        guarded.add(dataSource);
+        log.info("Обмеження одночасних з'єднань {}: {}", beanName, pool.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    // MeterRegistry сам залежить від DataSource (метрики пулу), тож gauge реєструються, коли всі біни вже створено.
+    // Тег name – ім'я біна, як у jdbc.connections.*: ім'я пулу Hikari призначає лише при першому з'єднанні
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        for (GuardedDataSource dataSource : guarded) {
+            Gauge.builder("datasource.guard.waiting", dataSource.permits, Semaphore::getQueueLength)
+                    .tag("name", dataSource.name)
+                    .description("Потоки, що чекають дозволу на з'єднання")
+                    .register(registry);
+        }
+    }
+
+    static final class GuardedDataSource extends DelegatingDataSource {
+
+        private final String name;
+        private final Semaphore permits;
+        private final long timeoutMillis;
+
+        GuardedDataSource(HikariDataSource pool, String name, int maxConnections, long timeoutMillis) {
+            super(pool);
+            this.name = name;
+            this.permits = new Semaphore(maxConnections, true);
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return guard(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return guard(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        // Hikari при закритті DataSource
+        public void close() {
+            ((HikariDataSource) getTargetDataSource()).close();
+        }
+
+        private void acquire() throws SQLException {
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Очікування з'єднання " + name + " перервано", e);
+            }
+            if (!acquired) {
+                throw new SQLTransientConnectionException(name + " - усі з'єднання зайняті понад " + timeoutMillis + " мс");
+            }
+        }
+
+        // Дозвіл повертається один раз, при першому close(); усе інше (у т.ч. unwrap до PGConnection) – як є
+        private Connection guard(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            InvocationHandler handler = (proxy, method, args) -> {
+                if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                    return proxy == args[0];
+                }
+                if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                    return System.identityHashCode(proxy);
+                }
+                if ("close".equals(method.getName()) && method.getParameterCount() == 0 && released.compareAndSet(false, true)) {
+                    try {
+                        return method.invoke(connection);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        permits.release();
+                    }
+                }
+                return invoke(connection, method, args);
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spring-профіль fast (Maven-профіль fast-start). Разом зі spring.main.lazy-initialization=true
+ * біни створюються при першому використанні: контролери, HTTP-стек RestTemplateService, CoinMarketCap тощо.
+ */
+@Slf4j
+@Configuration
+@Profile("fast")
+public class FastStartConfig {
+
+    // Біни з @Scheduled і @PostConstruct лишаються eager: задачі планувальника реєструються лише для створених бінів,
+    // а @PostConstruct готує схему, індекси і кеші до першого запиту
+    @Bean
+    public static LazyInitializationExcludeFilter startupWorkIsEager() {
+        return (beanName, definition, type) -> type != null && hasStartupWork(type);
+    }
+
+    // Тренувальний запуск для AppCDS: після готовності контексту виходимо, JVM записує архів класів (-XX:ArchiveClassesAtExit)
+    @Bean
+    @ConditionalOnProperty("app.startup.training-run")
+    public ApplicationListener<ApplicationReadyEvent> trainingRunExit() {
+        return event -> {
+            log.info("Тренувальний запуск завершено, вихід");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+    private static boolean hasStartupWork(Class<?> type) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> found.set(true), FastStartConfig::isStartupMethod);
+        return found.get();
+    }
+
+    private static boolean isStartupMethod(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || AnnotatedElementUtils.hasAnnotation(method, PostConstruct.class);
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.demo.config;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.log4j.Log4j2;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
@@ -17,6 +24,9 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -24,11 +34,27 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationStore revocationStore;
+    // ✅ jwt.stateless=true – Authentication будується лише з claims токена, без звернення до UserDetailsService
+    private final boolean stateless;
+    // ✅ Таймери створюються один раз, на запит – лише record(), без пошуку в MeterRegistry
+    private final Timer verifyValidTimer;
+    private final Timer verifyInvalidTimer;
+    private final Timer userLookupTimer;
 
     // ✅ Передаємо залежності через конструктор (без @Autowired)
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, TokenRevocationStore revocationStore,
+                     @Value("${jwt.stateless:false}") boolean stateless, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.revocationStore = revocationStore;
+        this.stateless = stateless;
+        this.verifyValidTimer = Timer.builder("auth.token.verify").tag("outcome", "valid")
+                .description("Перевірка JWT у JwtFilter").register(meterRegistry);
+        this.verifyInvalidTimer = Timer.builder("auth.token.verify").tag("outcome", "invalid")
+                .description("Перевірка JWT у JwtFilter").register(meterRegistry);
+        this.userLookupTimer = Timer.builder("auth.user.lookup")
+                .description("Завантаження UserDetails у JwtFilter").register(meterRegistry);
     }
 
 
@@ -41,12 +67,37 @@ public class JwtFilter extends OncePerRequestFilter {
         if (StringUtils.hasText(authHeader) && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7); // Видаляємо "Bearer "
             if (!token.equals("null") &&  !token.isEmpty()) {
-                String username = jwtUtil.extractUserName(token); // Отримуємо username з токена
+                // Одна перевірка підпису та exp на запит (або жодної, якщо токен уже є в кеші)
+                long verifyStart = System.nanoTime();
+                Claims claims = jwtUtil.verify(token);
+                // Refresh-токен не дає доступу до API; відкликання перевіряється Bloom-фільтром, БД – лише при збігу
+                if (claims != null && (!jwtUtil.isAccessToken(claims) || revocationStore.isRevoked(claims))) {
+                    claims = null;
+                }
+                (claims == null ? verifyInvalidTimer : verifyValidTimer).record(System.nanoTime() - verifyStart, TimeUnit.NANOSECONDS);
+                String username = claims == null ? null : claims.getSubject();
                 log.info("JWT токен отримано. Username: {}", username);
                 // Якщо токен дійсний, додаємо користувача у SecurityContextHolder
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtUtil.validateToken(token, userDetails.getUsername())) {
+                    if (stateless) {
+                        // Без ролей у claims користувач отримав би Authentication без жодних прав – такий токен відхиляємо
+                        List<String> roles = jwtUtil.extractRoles(claims);
+                        if (roles != null && !roles.isEmpty()) {
+                            SecurityContextHolder.getContext().setAuthentication(fromClaims(username, roles));
+                        } else {
+                            log.info("JWT токен без ролей відхилено у stateless-режимі. Username: {}", username);
+                        }
+                        chain.doFilter(request, response);
+                        return;
+                    }
+                    long lookupStart = System.nanoTime();
+                    UserDetails userDetails;
+                    try {
+                        userDetails = userDetailsService.loadUserByUsername(username);
+                    } finally {
+                        userLookupTimer.record(System.nanoTime() - lookupStart, TimeUnit.NANOSECONDS);
+                    }
+                    if (username.equals(userDetails.getUsername())) {
                         SecurityContextHolder.getContext().setAuthentication(
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
                     } else {
@@ -62,4 +113,13 @@ public class JwtFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response); // Передаємо запит далі
     }
+
+    private static UsernamePasswordAuthenticationToken fromClaims(String username, List<String> roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role));
+        }
+        UserDetails principal = new User(username, "", authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.example.demo.config;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Набір ключів підпису JWT: один активний (ним підписуємо) і кілька попередніх (ними лише перевіряємо).
+ * Ключі можна ротувати без рестарту – через rotate(...) або через файл jwt.key-ring-file, який перечитується за розкладом.
+ * Формат файлу: active=kid, key.kid=base64-секрет.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private static final String LEGACY_SECRET = "U29tZXN1cGVyc2VjcmV0a2V5Zm9ySlhUVG9rZW5zMTIzNDU2"; // Base64 key
+
+    private final int maxPreviousKeys;
+    private final Path keyRingFile;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Snapshot snapshot;
+    private volatile long keyRingFileModified = -1;
+
+    public JwtKeyRing(@Value("${jwt.active-key-id:" + DEFAULT_KEY_ID + "}") String activeKeyId,
+                      @Value("${jwt.active-key:" + LEGACY_SECRET + "}") String activeKey,
+                      @Value("${jwt.max-previous-keys:2}") int maxPreviousKeys,
+                      @Value("${jwt.key-ring-file:}") String keyRingFile) {
+        this.maxPreviousKeys = maxPreviousKeys;
+        this.keyRingFile = StringUtils.hasText(keyRingFile) ? Paths.get(keyRingFile) : null;
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        keys.put(activeKeyId, toKey(activeKey));
+        this.snapshot = new Snapshot(activeKeyId, keys);
+        reloadFromFile();
+    }
+
+    public String activeKeyId() {
+        return snapshot.activeKeyId;
+    }
+
+    public SecretKey activeKey() {
+        Snapshot current = snapshot;
+        return current.keys.get(current.activeKeyId);
+    }
+
+    // Токени без kid (випущені до появи key ring) перевіряємо ключем за замовчуванням
+    public SecretKey find(String keyId) {
+        return snapshot.keys.get(keyId == null ? DEFAULT_KEY_ID : keyId);
+    }
+
+    /**
+     * Робить новий ключ активним. Попередній активний лишається для перевірки,
+     * найстаріші відкидаються понад jwt.max-previous-keys.
+     */
+    public synchronized void rotate(String keyId, String base64Secret) {
+        Snapshot current = snapshot;
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, toKey(base64Secret));
+        for (Map.Entry<String, SecretKey> entry : current.keys.entrySet()) {
+            if (keys.size() > maxPreviousKeys) {
+                break;
+            }
+            keys.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        publish(new Snapshot(keyId, keys));
+        log.info("JWT ключ ротовано. Активний kid: {}, всього ключів: {}", keyId, keys.size());
+    }
+
+    // Слухачі викликаються після кожної зміни набору ключів (наприклад, щоб скинути кеш перевірених токенів)
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.key-ring-reload-interval:60000}")
+    public synchronized void reloadFromFile() {
+        if (keyRingFile == null || !Files.isReadable(keyRingFile)) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(keyRingFile).toMillis();
+            if (modified == keyRingFileModified) {
+                return;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(keyRingFile)) {
+                properties.load(in);
+            }
+            String active = properties.getProperty("active");
+            Map<String, SecretKey> keys = new LinkedHashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("key.")) {
+                    keys.put(name.substring(4), toKey(properties.getProperty(name)));
+                }
+            }
+            if (active == null || !keys.containsKey(active)) {
+                log.warn("Файл ключів {} не містить активного ключа, залишаємо поточний набір", keyRingFile);
+                return;
+            }
+            keyRingFileModified = modified;
+            publish(new Snapshot(active, keys));
+            log.info("JWT ключі перечитано з {}. Активний kid: {}", keyRingFile, active);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Не вдалося перечитати файл ключів {}: {}", keyRingFile, e.toString());
+        }
+    }
+
+    private void publish(Snapshot next) {
+        snapshot = next;
+        listeners.forEach(Runnable::run);
+    }
+
+    private static SecretKey toKey(String base64Secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+    }
+
+    private static class Snapshot {
+        private final String activeKeyId;
+        private final Map<String, SecretKey> keys;
+
+        private Snapshot(String activeKeyId, Map<String, SecretKey> keys) {
+            this.activeKeyId = activeKeyId;
+            this.keys = Collections.unmodifiableMap(keys);
+        }
+    }
+}
@@ -1,40 +1,212 @@
 package com.example.demo.config;
 
+import com.example.demo.dto.TokenPair;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class JwtUtil {
 
 
-    private static final String SECRET_KEY = "U29tZXN1cGVyc2VjcmV0a2V5Zm9ySlhUVG9rZW5zMTIzNDU2"; // Base64 key
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступний", e);
+        }
+    });
 
-    public  String generateToken(String userName){
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
+    private final JwtKeyRing keyRing;
+
+    // JwtParser після build() незмінний і потокобезпечний – будуємо його один раз, ключ обирається за kid
+    private final JwtParser parser;
+
+    // Кеш уже перевірених токенів: ключ – SHA-256 токена, запис живе до exp самого токена
+    private final Cache<ByteBuffer, Claims> verifiedTokens;
+
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                   @Value("${jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+                   @Value("${jwt.refresh-token-ttl:7d}") Duration refreshTokenTtl) {
+        this.keyRing = keyRing;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.parser = Jwts.parser().keyLocator(new KeyRingLocator(keyRing)).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
+        // Після ротації частина ключів могла зникнути – раніше перевірені ними токени треба перевірити знову
+        keyRing.addListener(verifiedTokens::invalidateAll);
+    }
+
+    // Access-токен. Ролі кладемо в claims, щоб у stateless-режимі JwtFilter не ходив у БД;
+    // токен без ролей у stateless-режимі не приймається, тож випускати його не можна
+    public String generateToken(String userName, Collection<String> roles) {
+        if (roles == null || roles.isEmpty()) {
+            throw new IllegalArgumentException("Access-токен без ролей: " + userName);
+        }
         return Jwts.builder()
-                .setSubject(userName)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis()+36000000))
-                .signWith(SignatureAlgorithm.HS256,SECRET_KEY)
+                .header().keyId(keyRing.activeKeyId()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(userName)
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN)
+                .claim(ROLES_CLAIM, new ArrayList<>(roles))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + accessTokenTtl.toMillis()))
+                .signWith(keyRing.activeKey(), Jwts.SIG.HS256)
                 .compact();
     }
 
+    // Refresh-токен без ролей: при оновленні ролі беруться з UserDetailsService, тож зміни ролей підхоплюються
+    public String generateRefreshToken(String userName) {
+        return Jwts.builder()
+                .header().keyId(keyRing.activeKeyId()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(userName)
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + refreshTokenTtl.toMillis()))
+                .signWith(keyRing.activeKey(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    public TokenPair issueTokens(String userName, Collection<String> roles) {
+        return new TokenPair(generateToken(userName, roles), generateRefreshToken(userName), accessTokenTtl.getSeconds());
+    }
+
+    // Токени без token_type випущені до появи refresh-токенів і є access-токенами
+    public boolean isAccessToken(Claims claims) {
+        Object type = claims.get(TOKEN_TYPE_CLAIM);
+        return type == null || ACCESS_TOKEN.equals(type);
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_TYPE_CLAIM));
+    }
+
+    /**
+     * Перевіряє підпис і термін дії токена за один прохід.
+     * Повертає claims або null, якщо токен недійсний. Повторні виклики з тим самим токеном
+     * обслуговуються з кешу без повторної HMAC-перевірки та розбору JSON.
+     */
+    public Claims verify(String token) {
+        ByteBuffer key = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("JWT токен недійсний: {}", e.getMessage());
+            return null;
+        }
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
     public String extractUserName(String token){
-        return  getClaims(token).getSubject();
+        Claims claims = verify(token);
+        return claims == null ? null : claims.getSubject();
     }
     public  boolean validateToken(String token, String userName){
-        return extractUserName(token).equals(userName) && !isTokenExpired(token);
+        Claims claims = verify(token);
+        return claims != null && claims.getSubject().equals(userName) && !isTokenExpired(claims);
+    }
+
+    // null, якщо токен випущено без ролей: у stateless-режимі такий токен відхиляється, інакше ролі беруться з БД
+    public List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection)) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        for (Object role : (Collection<?>) roles) {
+            result.add(String.valueOf(role));
+        }
+        return result;
+    }
+
+    private boolean isTokenExpired(Claims claims){
+        return  claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token){
-        return  getClaims(token).getExpiration().before(new Date());
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 
+    private static class KeyRingLocator extends LocatorAdapter<Key> {
+
+        private final JwtKeyRing keyRing;
+
+        private KeyRingLocator(JwtKeyRing keyRing) {
+            this.keyRing = keyRing;
+        }
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            SecretKey key = keyRing.find(header.getKeyId());
+            if (key == null) {
+                throw new UnsupportedJwtException("Невідомий kid: " + header.getKeyId());
+            }
+            return key;
+        }
+    }
+
+    // Запис у кеші зникає рівно тоді, коли спливає exp токена
+    private static class ClaimsExpiry implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            long ttlMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
 
-    private Claims getClaims(String token){
-        return  Jwts.parser().setSigningKey(SECRET_KEY).build().parseSignedClaims(token).getPayload();
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,307 @@
+package com.example.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скидання навантаження одразу після JwtFilter: запит, що не вміщується в ліміти своєї групи маршрутів
+ * (load-shedding.groups.*), відхиляється одразу, а не чекає в черзі на потік Tomcat чи з'єднання Hikari.
+ * 429 + Retry-After – користувач (анонімний – IP, а з body-key-field ще й пара IP + поле тіла, напр. username)
+ * перевищив свою частоту; 503 + Retry-After – група вичерпала адаптивний ліміт одночасних запитів.
+ * Асинхронні запити тримають місце до завершення async.
+ *
+ * IP береться з getRemoteAddr(): за балансувальником це адреса балансувальника, доки не ввімкнено
+ * server.forward-headers-strategy (див. application.properties) – інакше всі анонімні клієнти ділять один кошик.
+ */
+@Slf4j
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    // Тіло для body-key-field читаємо лише до цього розміру; довше – ключ лише IP, тіло передається далі повністю
+    private static final int MAX_KEY_BODY_BYTES = 4096;
+
+    private final LoadSheddingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<RouteGroup> groups = new ArrayList<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public LoadSheddingFilter(LoadSheddingProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        for (Map.Entry<String, LoadSheddingProperties.Group> entry : properties.getGroups().entrySet()) {
+            groups.add(new RouteGroup(entry.getKey(), entry.getValue(), properties.getMaxPrincipals(), meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || groups.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteGroup group = match(urlPathHelper.getPathWithinApplication(request));
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (group.rateLimiter != null) {
+            String principal = authenticatedPrincipal();
+            boolean anonymous = principal == null;
+            if (anonymous) {
+                principal = "ip:" + request.getRemoteAddr();
+            }
+            long waitNanos = group.rateLimiter.tryAcquire(principal);
+            // Кошик IP уже списано: підміна поля тіла не дає анонімному клієнту більше запитів, лише ділить їх
+            if (waitNanos == 0 && anonymous && group.bodyKeyLimiter != null) {
+                CachedBodyRequest cached = CachedBodyRequest.read(request, MAX_KEY_BODY_BYTES);
+                request = cached;
+                String value = bodyField(cached.body(), group.bodyKeyField);
+                if (!value.isEmpty()) {
+                    waitNanos = group.bodyKeyLimiter.tryAcquire(principal + ":" + group.bodyKeyField + ":" + value);
+                }
+            }
+            if (waitNanos > 0) {
+                group.rateLimited.increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1),
+                        "Забагато запитів, спробуйте пізніше");
+                return;
+            }
+        }
+        if (!group.limit.tryAcquire()) {
+            group.concurrencyLimited.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, Math.max(1, properties.getRetryAfter().getSeconds()),
+                    "Сервер перевантажений, спробуйте пізніше");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(group.limit, start));
+            } else {
+                group.limit.release(System.nanoTime() - start, !completed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private RouteGroup match(String path) {
+        for (RouteGroup group : groups) {
+            for (String pattern : group.patterns) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    // JwtFilter уже виставив Authentication; без токена (зокрема /auth/login) – null, рахуємо за IP
+    private static String authenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return null;
+    }
+
+    // Невалідне чи завелике тіло – без поля: 400 на нього поверне контролер, ліміт лишається за IP
+    private String bodyField(byte[] body, String field) {
+        if (body == null || body.length == 0) {
+            return "";
+        }
+        try {
+            return objectMapper.readTree(body).path(field).asText("");
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class RouteGroup {
+        private final List<String> patterns;
+        private final AdaptiveConcurrencyLimit limit;
+        private final PrincipalRateLimiter rateLimiter;
+        private final String bodyKeyField;
+        // Окремий кеш кошиків: випадкові значення поля не витісняють кошики IP і користувачів
+        private final PrincipalRateLimiter bodyKeyLimiter;
+        private final Counter rateLimited;
+        private final Counter concurrencyLimited;
+
+        private RouteGroup(String name, LoadSheddingProperties.Group group, long maxPrincipals, MeterRegistry meterRegistry) {
+            this.patterns = group.getPatterns();
+            this.limit = new AdaptiveConcurrencyLimit(group.getInitialLimit(), group.getMinLimit(), group.getMaxLimit(),
+                    group.getWindow().toNanos());
+            this.rateLimiter = group.getRatePerSecond() > 0
+                    ? new PrincipalRateLimiter(group.getRatePerSecond(), group.getBurst(), maxPrincipals)
+                    : null;
+            this.bodyKeyField = group.getBodyKeyField() == null || group.getBodyKeyField().isEmpty()
+                    ? null : group.getBodyKeyField();
+            this.bodyKeyLimiter = rateLimiter != null && bodyKeyField != null && group.getBodyKeyRatePerSecond() > 0
+                    ? new PrincipalRateLimiter(group.getBodyKeyRatePerSecond(), group.getBodyKeyBurst(), maxPrincipals)
+                    : null;
+            this.rateLimited = meterRegistry.counter("http.load.shedding.rejected", "group", name, "reason", "rate_limit");
+            this.concurrencyLimited = meterRegistry.counter("http.load.shedding.rejected", "group", name, "reason", "concurrency");
+            Gauge.builder("http.load.shedding.limit", limit, AdaptiveConcurrencyLimit::limit)
+                    .tag("group", name).register(meterRegistry);
+            Gauge.builder("http.load.shedding.in.flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                    .tag("group", name).register(meterRegistry);
+        }
+    }
+
+    // Перші байти тіла вже прочитані для ключа – віддаємо їх далі разом із рештою потоку
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] prefix;
+        private final boolean complete;
+        private ServletInputStream stream;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] prefix, boolean complete) {
+            super(request);
+            this.prefix = prefix;
+            this.complete = complete;
+        }
+
+        static CachedBodyRequest read(HttpServletRequest request, int maxBytes) throws IOException {
+            byte[] read = request.getInputStream().readNBytes(maxBytes + 1);
+            return read.length > maxBytes
+                    ? new CachedBodyRequest(request, read, false)
+                    : new CachedBodyRequest(request, read, true);
+        }
+
+        // null – тіло довше за ліміт
+        byte[] body() {
+            return complete ? prefix : null;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                InputStream body = complete
+                        ? new ByteArrayInputStream(prefix)
+                        : new SequenceInputStream(new ByteArrayInputStream(prefix), super.getInputStream());
+                stream = replay(body);
+            }
+            return stream;
+        }
+
+        private static ServletInputStream replay(InputStream body) {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = body.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int n = body.read(buffer, offset, length);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Асинхронне читання тіла не підтримується");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+
+    // onComplete приходить і після таймауту/помилки async; тоді статус уже 5xx
+    private static final class ReleaseOnComplete implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+
+        private ReleaseOnComplete(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            limit.release(System.nanoTime() - start, response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторний startAsync скидає слухачів – реєструємося знову
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// load-shedding.* – групи маршрутів LoadSheddingFilter: адаптивний ліміт одночасних запитів і ліміт частоти на користувача
+@Data
+@Component
+@ConfigurationProperties(prefix = "load-shedding")
+public class LoadSheddingProperties {
+
+    private boolean enabled = true;
+    // Retry-After для 503, коли ліміт одночасних запитів групи вичерпано
+    private Duration retryAfter = Duration.ofSeconds(1);
+    // Скільки користувачів/IP тримати в пам'яті; неактивні витісняються
+    private long maxPrincipals = 100_000;
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+        // Ant-шаблони шляхів; запит потрапляє в першу групу, що збіглася
+        private List<String> patterns = new ArrayList<>();
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        // Як часто заміри latency перераховують ліміт
+        private Duration window = Duration.ofMillis(500);
+        // Запитів на секунду на користувача (анонімні – на IP); 0 – без обмеження
+        private double ratePerSecond;
+        private int burst = 20;
+        // Додатковий ліміт для анонімних запитів на пару IP + поле JSON-тіла (напр. username для /auth/login):
+        // один користувач за NAT/проксі не вичерпує кошик IP за всіх. Кошик IP списується завжди, цей – після нього.
+        // Порожнє поле або нульова частота – лише кошик IP
+        private String bodyKeyField;
+        private double bodyKeyRatePerSecond;
+        private int bodyKeyBurst = 5;
+    }
+}
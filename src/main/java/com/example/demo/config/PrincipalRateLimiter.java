@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket на користувача у формі GCRA: стан відра – один AtomicLong (теоретичний час наступного запиту),
+ * оновлюється CAS без локів. Відра лежать у Caffeine (внутрішньо розбитий на сегменти), неактивні витісняються.
+ */
+final class PrincipalRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    PrincipalRateLimiter(double ratePerSecond, int burst, long maxPrincipals) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.toleranceNanos = intervalNanos * Math.max(1, burst);
+        // Відро, що простояло довше за tolerance, знову повне – його можна забути
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxPrincipals)
+                .expireAfterAccess(Duration.ofNanos(Math.max(toleranceNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    // 0 – запит пропущено, інакше – через скільки наносекунд буде вільний токен
+    long tryAcquire(String principal) {
+        AtomicLong theoreticalArrival = buckets.get(principal, key -> new AtomicLong(System.nanoTime()));
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// query.byding.queryParamMap.* – параметри запиту за замовчуванням для CoinMarketCap /cryptocurrency/map
+@Data
+@Component
+@ConfigurationProperties(prefix = "query.byding")
+public class QueryBindingProperties {
+    private Map<String, String> queryParamMap = new LinkedHashMap<>();
+}
@@ -0,0 +1,104 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+/**
+ * Два пули Hikari – primary (spring.datasource.*) і replica (app.datasource.replica.*) – за ReadWriteRoutingDataSource.
+ * Вмикається, якщо задано app.datasource.replica.url; інакше лишається звичайний DataSource зі Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+public class ReadWriteRoutingConfig {
+
+    private static final long REPLICA_CONNECTION_TIMEOUT_MILLIS = 250;
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Облікові дані replica за замовчуванням ті самі, що й у primary. connection-timeout за замовчуванням короткий:
+    // недоступна replica має швидко віддавати читання primary, а не тримати запит 30 с
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MILLIS);
+        return dataSource;
+    }
+
+    // Пули передаються як DataSource: з app.db.guard.enabled їх обгортає ConnectionConcurrencyGuard
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                                 @Value("${app.datasource.replica.fallback-period:30s}") Duration fallbackPeriod) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, fallbackPeriod);
+    }
+
+    // Health db – лише primary: без replica застосунок працює (читання переходять на primary), тож її збій
+    // не повинен виводити вузол з балансування. Стан replica видно з datasource.routing.replica.fallbacks
+    @Bean
+    public HealthIndicator dbHealthIndicator(@Qualifier("primaryDataSource") DataSource primaryDataSource) {
+        return new DataSourceHealthIndicator(primaryDataSource);
+    }
+
+    // Окремим MeterBinder, а не в конструкторі: реєстр метрик створюється після всіх DataSource (метрики пулів)
+    @Bean
+    public MeterBinder readWriteRoutingMetrics(ReadWriteRoutingDataSource routing) {
+        return registry -> {
+            FunctionCounter.builder("datasource.routing.connections", routing, ReadWriteRoutingDataSource::primaryConnections)
+                    .tag("target", "primary").register(registry);
+            FunctionCounter.builder("datasource.routing.connections", routing, ReadWriteRoutingDataSource::replicaConnections)
+                    .tag("target", "replica").register(registry);
+            FunctionCounter.builder("datasource.routing.replica.fallbacks", routing, ReadWriteRoutingDataSource::replicaFallbacks)
+                    .register(registry);
+        };
+    }
+
+    // Фізичне з'єднання береться лише на першому запиті, коли readOnly транзакції вже відомий.
+    // Значення за замовчуванням задані явно, щоб проксі не брав з'єднання при старті
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(readWriteRoutingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    // Spring за замовчуванням тримає з'єднання до закриття EntityManager (а з open-in-view – до кінця запиту),
+    // тоді весь запит пішов би в джерело першої транзакції. Віддаємо з'єднання після кожної транзакції
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Маршрутизація з'єднань між primary і replica.
+ * Транзакції з readOnly = true (у т.ч. методи StudentRepository/UserRepository без власного @Transactional) йдуть у replica,
+ * усе інше – у primary. Після першого звернення до primary поза readOnly (запис у транзакції, COPY, DDL)
+ * решта HTTP-запиту читає з primary (read-your-writes). Якщо replica недоступна, читання переходить на primary
+ * і лишається там fallbackPeriod, щоб кожен запит не чекав connection-timeout пулу replica.
+ * Рішення приймається в момент отримання фізичного з'єднання, тому стоїть за LazyConnectionDataSourceProxy
+ * (див. ReadWriteRoutingConfig) – інакше readOnly транзакції ще не видно.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final String STICKY_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".sticky";
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    // Метрики реєструє ReadWriteRoutingConfig.readWriteRoutingMetrics: MeterRegistry сам залежить від усіх DataSource
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder replicaFallbacks = new LongAdder();
+    private final long fallbackNanos;
+    // System.nanoTime(), до якого читання йдуть у primary без спроби replica; 0 – replica вважається доступною
+    private volatile long replicaRetryAt;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration fallbackPeriod) {
+        this.primary = primary;
+        this.fallbackNanos = fallbackPeriod.toNanos();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    // Виконує читання на primary незалежно від readOnly – для даних, які могли ще не дійти до replica
+    public <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markSticky();
+            return Target.PRIMARY;
+        }
+        return FORCE_PRIMARY.get() != null || isSticky() ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.PRIMARY || replicaSuspended()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = determineTargetDataSource().getConnection();
+            replicaConnections.increment();
+            replicaRetryAt = 0;
+            return connection;
+        } catch (SQLException e) {
+            replicaFallbacks.increment();
+            replicaRetryAt = Math.max(1, System.nanoTime() + fallbackNanos);
+            log.warn("Replica недоступна, читаємо з primary наступні {} с: {}",
+                    TimeUnit.NANOSECONDS.toSeconds(fallbackNanos), e.toString());
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+
+    public long primaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public long replicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    public long replicaFallbacks() {
+        return replicaFallbacks.sum();
+    }
+
+    private boolean replicaSuspended() {
+        long retryAt = replicaRetryAt;
+        return retryAt != 0 && System.nanoTime() - retryAt < 0;
+    }
+
+    // Прапорець живе в атрибутах поточного запиту; поза HTTP-запитом (планувальник, пули) прилипання немає
+    private static void markSticky() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(STICKY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean isSticky() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(STICKY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
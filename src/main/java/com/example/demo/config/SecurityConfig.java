@@ -1,6 +1,7 @@
 package com.example.demo.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +11,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import javax.servlet.http.HttpServletRequest;
+
 @Configuration
 //Позначає цей клас як конфігураційний, що дозволяє Spring автоматично створювати та налаштовувати Bean-и.
 @EnableWebSecurity // Увімкнення Spring Security у цьому застосунку.
@@ -17,6 +20,13 @@ public class SecurityConfig {
 
     @Autowired
     private JwtFilter jwtFilter; //Це наш власний фільтр, який перевіряє JWT-токен у кожному запиті.
+    @Autowired
+    private LoadSheddingFilter loadSheddingFilter; // Ліміти навантаження; після JwtFilter, щоб рахувати по користувачу
+    // Окремий порт actuator (management.server.port) – лише для внутрішньої мережі, там метрики доступні без токена
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+    @Value("${server.port:8080}")
+    private int serverPort;
 
 
     @Bean//  Метод повертає SecurityFilterChain, який буде керувати безпекою всього застосунку.
@@ -24,11 +34,16 @@ public class SecurityConfig {
         http
                 .csrf().disable()
                 .authorizeRequests()
+                .antMatchers("/auth/revoke").hasRole("ADMIN") // Примусове відкликання токенів – лише адміністратор
+                .antMatchers("/actuator/health", "/actuator/health/**").permitAll() // Перевірка стану для балансувальника
+                .requestMatchers(this::onManagementPort).permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN") // metrics і prometheus на основному порту – лише адміністратор
                 .antMatchers("/auth").permitAll()        // Дозволяємо доступ до `/auth` (реєстрація, логін)
-                .antMatchers("/students").authenticated() //         //  Захищаємо `/students` (доступ тільки з токеном)
+                .antMatchers("/students", "/students/**").authenticated() //         //  Захищаємо `/students` (доступ тільки з токеном)
                 .anyRequest().permitAll() //         ✅ Всі інші запити дозволяємо без авторизації
                 .and()
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(loadSheddingFilter, JwtFilter.class);
         //   addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
         //Додає наш кастомний JWT-фільтр JwtFilter перед стандартним фільтром логіну Spring Security.
          // Це дозволяє перевіряти JWT у кожному запиті до обробки логіну.
@@ -44,6 +59,19 @@ public class SecurityConfig {
     }
 
 
+    // Перевірку прав без справжнього запиту (WebInvocationPrivilegeEvaluator для сторінок помилок)
+    // Spring Security робить на заглушці, яка не знає порту, – такий запит не вважаємо службовим
+    private boolean onManagementPort(HttpServletRequest request) {
+        if (managementPort <= 0 || managementPort == serverPort) {
+            return false;
+        }
+        try {
+            return request.getLocalPort() == managementPort;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
     //PasswordEncoder → Додає BCryptPasswordEncoder для захищеного хешування паролів.
     // BCryptPasswordEncoder – це надійний алгоритм хешування паролів.
     @Bean
@@ -0,0 +1,236 @@
+package com.example.demo.config;
+
+import com.example.demo.dao.RevokedTokenRepository;
+import com.example.demo.dao.entity.RevokedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Відкликані JWT. Джерело правди – таблиця revoked_tokens у primary, на гарячому шляху – Bloom-фільтр у пам'яті:
+ * для майже всіх токенів відповідь "не відкликано" дається без БД, точна перевірка (з коротким кешем)
+ * виконується лише коли фільтр каже "можливо". Фільтр перебудовується при старті та за розкладом
+ * лише з ще чинних відкликань, прострочені рядки при цьому видаляються; між перебудовами кожні
+ * jwt.revocation.poll-interval до нього дописуються відкликання, зроблені іншими вузлами.
+ * Відкликання всіх токенів користувача зберігається окремим рядком (jti = "user:" + username) і тримається в пам'яті точно.
+ * Усі читання – з primary: відкликання, яке ще не дійшло до replica, не повинно пропускати токен.
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    private static final String USER_PREFIX = "user:";
+
+    private final RevokedTokenRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Є лише з app.datasource.replica.url
+    private final ReadWriteRoutingDataSource readWriteRouting;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    // Жоден токен не живе довше за refresh-токен – стільки ж зберігаємо відкликання користувача
+    private final Duration maxTokenTtl;
+    // Опитування перечитує відкликання з revoked_at трохи раніше за останнє побачене: транзакції інших вузлів
+    // можуть закомітитись пізніше, ніж вони поставили revoked_at, а годинники вузлів – трохи розходитись
+    private final Duration pollOverlap;
+    // Результати точних перевірок для хибнопозитивних і справді відкликаних jti, щоб не ходити в БД на кожен запит
+    private final Cache<String, Boolean> exactChecks;
+
+    private volatile BloomFilter filter;
+    private volatile Map<String, Instant> revokedUsers = Collections.emptyMap();
+    // true, поки фільтр не вдалося побудувати з БД – тоді кожен jti перевіряється точно
+    private volatile boolean degraded;
+    // Найпізніший revoked_at, який уже потрапив у фільтр
+    private volatile Instant pollWatermark = Instant.now();
+
+    public TokenRevocationStore(RevokedTokenRepository repository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting,
+                                @Value("${jwt.revocation.expected-insertions:100000}") long expectedInsertions,
+                                @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                @Value("${jwt.revocation.exact-cache-ttl:60s}") Duration exactCacheTtl,
+                                @Value("${jwt.revocation.poll-overlap:30s}") Duration pollOverlap,
+                                @Value("${jwt.refresh-token-ttl:7d}") Duration maxTokenTtl) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readWriteRouting = readWriteRouting.getIfAvailable();
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxTokenTtl = maxTokenTtl;
+        this.pollOverlap = pollOverlap;
+        this.exactChecks = Caffeine.newBuilder()
+                .expireAfterWrite(exactCacheTtl)
+                .maximumSize(10_000)
+                .build();
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS revoked_tokens (jti varchar(64) PRIMARY KEY, "
+                    + "username varchar(255), expires_at timestamp NOT NULL, revoked_at timestamp NOT NULL)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS revoked_tokens_expires_at_idx ON revoked_tokens (expires_at)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS revoked_tokens_revoked_at_idx ON revoked_tokens (revoked_at)");
+        } catch (DataAccessException e) {
+            log.warn("Не вдалося перевірити таблицю revoked_tokens: {}", e.getMostSpecificCause().getMessage());
+        }
+        rebuild();
+    }
+
+    // Гарячий шлях (JwtFilter): фільтр і відкликання користувачів у пам'яті, БД – лише коли фільтр каже "можливо"
+    public boolean isRevoked(Claims claims) {
+        if (revokedBefore(claims, revokedUsers.get(claims.getSubject()))) {
+            return true;
+        }
+        String jti = claims.getId();
+        if (jti == null) {
+            return false;
+        }
+        if (!degraded && !filter.mightContain(jti)) {
+            return false;
+        }
+        return exactChecks.get(jti, id -> onPrimary(() -> repository.existsById(id)));
+    }
+
+    /**
+     * Точна перевірка в primary без фільтра і кешів – для холодних шляхів (/auth/refresh, /auth/logout, /auth/revoke),
+     * де відкликання, зроблене щойно на іншому вузлі, має діяти одразу.
+     */
+    public boolean isRevokedExact(Claims claims) {
+        if (revokedBefore(claims, revokedUsers.get(claims.getSubject()))) {
+            return true;
+        }
+        String userKey = USER_PREFIX + claims.getSubject();
+        List<String> ids = claims.getId() == null ? List.of(userKey) : List.of(claims.getId(), userKey);
+        for (RevokedToken token : onPrimary(() -> repository.findAllById(ids))) {
+            if (!token.getJti().equals(userKey) || revokedBefore(claims, token.getRevokedAt())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Відкликає один jti. true – відкликав саме цей виклик; false – jti уже був відкликаний
+     * (для refresh-токена це означає повторне пред'явлення) або токен уже прострочений.
+     */
+    public synchronized boolean revoke(String jti, String userName, Instant expiresAt) {
+        Instant now = Instant.now();
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(now)) {
+            return false;
+        }
+        boolean inserted = repository.insertIfAbsent(jti, userName, expiresAt, now) == 1;
+        filter.put(jti);
+        exactChecks.put(jti, true);
+        return inserted;
+    }
+
+    // Примусове відкликання: недійсні всі токени користувача, видані до цього моменту
+    public synchronized void revokeAllFor(String userName) {
+        Instant now = Instant.now();
+        repository.upsert(USER_PREFIX + userName, userName, now.plus(maxTokenTtl), now);
+        Map<String, Instant> users = new HashMap<>(revokedUsers);
+        users.put(userName, now);
+        revokedUsers = Collections.unmodifiableMap(users);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval:3600000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        try {
+            Instant now = Instant.now();
+            onPrimary(() -> {
+                int purged = repository.deleteExpired(now);
+                long active = repository.countByExpiresAtAfter(now);
+                BloomFilter next = new BloomFilter(Math.max(expectedInsertions, active * 2), falsePositiveRate);
+                Map<String, Instant> users = new HashMap<>();
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<RevokedToken> revoked = repository.streamByExpiresAtAfter(now)) {
+                        revoked.forEach(token -> {
+                            if (token.getJti().startsWith(USER_PREFIX)) {
+                                users.put(token.getUserName(), token.getRevokedAt());
+                            } else {
+                                next.put(token.getJti());
+                            }
+                        });
+                    }
+                });
+                filter = next;
+                revokedUsers = Collections.unmodifiableMap(users);
+                exactChecks.invalidateAll();
+                pollWatermark = now;
+                degraded = false;
+                log.info("Фільтр відкликаних токенів перебудовано: {} чинних, {} прострочених видалено", active, purged);
+                return null;
+            });
+        } catch (DataAccessException | TransactionException e) {
+            degraded = true;
+            log.warn("Не вдалося перебудувати фільтр відкликаних токенів, перевіряємо точно: {}", e.toString());
+        }
+    }
+
+    // Відкликання з інших вузлів доходять до цього за кілька секунд, а не лише при щогодинній перебудові
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval:5000}",
+            initialDelayString = "${jwt.revocation.poll-interval:5000}")
+    public synchronized void pollRecent() {
+        Instant now = Instant.now();
+        Instant since = pollWatermark.minus(pollOverlap);
+        try {
+            List<RevokedToken> recent = onPrimary(() -> repository.findByRevokedAtAfterAndExpiresAtAfter(since, now));
+            Instant latest = pollWatermark;
+            Map<String, Instant> users = null;
+            for (RevokedToken token : recent) {
+                if (token.getJti().startsWith(USER_PREFIX)) {
+                    Instant known = revokedUsers.get(token.getUserName());
+                    if (known == null || token.getRevokedAt().isAfter(known)) {
+                        users = users == null ? new HashMap<>(revokedUsers) : users;
+                        users.put(token.getUserName(), token.getRevokedAt());
+                    }
+                } else {
+                    filter.put(token.getJti());
+                    exactChecks.put(token.getJti(), true);
+                }
+                if (token.getRevokedAt().isAfter(latest)) {
+                    latest = token.getRevokedAt();
+                }
+            }
+            if (users != null) {
+                revokedUsers = Collections.unmodifiableMap(users);
+            }
+            pollWatermark = latest;
+        } catch (DataAccessException e) {
+            log.warn("Не вдалося прочитати нові відкликання токенів: {}", e.toString());
+        }
+    }
+
+    // iat має секундну точність, тож токен, виданий у ту ж секунду після відкликання, теж вважається відкликаним
+    private static boolean revokedBefore(Claims claims, Instant revokedAt) {
+        return revokedAt != null && claims.getIssuedAt() != null && !claims.getIssuedAt().toInstant().isAfter(revokedAt);
+    }
+
+    private <T> T onPrimary(Supplier<T> action) {
+        return readWriteRouting == null ? action.get() : readWriteRouting.onPrimary(action);
+    }
+}
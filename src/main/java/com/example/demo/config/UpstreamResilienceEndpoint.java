@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import com.example.demo.service.UpstreamResilience;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/upstream – стан політик зовнішніх викликів по хостах: коло, bulkhead, бюджет повторів, лічильники
+// повторів і hedge-запитів. Доступ – як до решти actuator: на основному порту лише ADMIN, або окремий порт management
+@Component
+@Endpoint(id = "upstream")
+public class UpstreamResilienceEndpoint {
+
+    private final UpstreamResilience upstreamResilience;
+
+    public UpstreamResilienceEndpoint(UpstreamResilience upstreamResilience) {
+        this.upstreamResilience = upstreamResilience;
+    }
+
+    @ReadOperation
+    public Map<String, Object> resilience() {
+        return upstreamResilience.state();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * http.client.resilience.* – політики зовнішніх викликів RestTemplateService: circuit breaker, bulkhead,
+ * hedging і повтори. defaults діють для всіх хостів, hosts[хост] перекриває лише задані поля:
+ * http.client.resilience.hosts[bank.gov.ua].hedge-after=300ms (дужки, бо в імені хоста є крапки).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http.client.resilience")
+public class UpstreamResilienceProperties {
+
+    private boolean enabled = true;
+    private Policy defaults = new Policy();
+    private Map<String, Policy> hosts = new LinkedHashMap<>();
+
+    // Ефективна політика хоста: поля hosts[host], далі defaults, далі вбудовані значення
+    public Policy policyFor(String host) {
+        Policy policy = Policy.BUILT_IN.overriddenBy(defaults);
+        Policy hostPolicy = host == null ? null : hosts.get(host);
+        return hostPolicy == null ? policy : policy.overriddenBy(hostPolicy);
+    }
+
+    // null у полі – успадкувати значення рівнем вище
+    @Data
+    public static class Policy {
+
+        private static final Policy BUILT_IN = builtIn();
+
+        // Circuit breaker: частка невдач серед останніх sliding-window-size викликів, після якої коло розмикається
+        private Double failureRateThreshold;
+        // Менше викликів у вікні – замало статистики, коло не розмикається
+        private Integer minimumCalls;
+        private Integer slidingWindowSize;
+        // Скільки коло розімкнене (виклики одразу падають), перш ніж пропустити пробні
+        private Duration openDuration;
+        // Пробних викликів у HALF_OPEN; всі успішні – коло замикається, будь-яка невдача – знову OPEN
+        private Integer halfOpenCalls;
+        // Успішний виклик, довший за slow-call-duration, рахується як невдача: повільний upstream теж розмикає коло. 0 – вимкнено
+        private Duration slowCallDuration;
+
+        // Bulkhead: максимум одночасних викликів хоста і скільки чекати вільного місця
+        private Integer maxConcurrentCalls;
+        private Duration maxWait;
+
+        // Hedging для ідемпотентних GET: якщо відповіді немає довше hedge-after, паралельно йде другий запит,
+        // перемагає перша успішна відповідь. 0 – вимкнено
+        private Duration hedgeAfter;
+
+        // Повтори ідемпотентних GET на I/O-помилках, 5xx і 429: max-attempts разом з першою спробою,
+        // пауза – випадкова в [0, min(retry-max-backoff, retry-backoff * 2^спроба)] (full jitter)
+        private Integer maxAttempts;
+        private Duration retryBackoff;
+        private Duration retryMaxBackoff;
+        // Бюджет повторів і hedge-запитів: кожен виклик додає retry-budget-ratio токена (до retry-budget-max-tokens),
+        // кожен повтор чи hedge забирає один – під час аварії upstream отримує не більше ~ratio додаткового навантаження
+        private Double retryBudgetRatio;
+        private Integer retryBudgetMaxTokens;
+
+        Policy overriddenBy(Policy other) {
+            Policy result = new Policy();
+            result.failureRateThreshold = pick(other.failureRateThreshold, failureRateThreshold);
+            result.minimumCalls = pick(other.minimumCalls, minimumCalls);
+            result.slidingWindowSize = pick(other.slidingWindowSize, slidingWindowSize);
+            result.openDuration = pick(other.openDuration, openDuration);
+            result.halfOpenCalls = pick(other.halfOpenCalls, halfOpenCalls);
+            result.slowCallDuration = pick(other.slowCallDuration, slowCallDuration);
+            result.maxConcurrentCalls = pick(other.maxConcurrentCalls, maxConcurrentCalls);
+            result.maxWait = pick(other.maxWait, maxWait);
+            result.hedgeAfter = pick(other.hedgeAfter, hedgeAfter);
+            result.maxAttempts = pick(other.maxAttempts, maxAttempts);
+            result.retryBackoff = pick(other.retryBackoff, retryBackoff);
+            result.retryMaxBackoff = pick(other.retryMaxBackoff, retryMaxBackoff);
+            result.retryBudgetRatio = pick(other.retryBudgetRatio, retryBudgetRatio);
+            result.retryBudgetMaxTokens = pick(other.retryBudgetMaxTokens, retryBudgetMaxTokens);
+            return result;
+        }
+
+        private static <T> T pick(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+
+        private static Policy builtIn() {
+            Policy policy = new Policy();
+            policy.failureRateThreshold = 0.5;
+            policy.minimumCalls = 10;
+            policy.slidingWindowSize = 20;
+            policy.openDuration = Duration.ofSeconds(30);
+            policy.halfOpenCalls = 3;
+            policy.slowCallDuration = Duration.ZERO;
+            policy.maxConcurrentCalls = 20;
+            policy.maxWait = Duration.ofMillis(100);
+            policy.hedgeAfter = Duration.ZERO;
+            policy.maxAttempts = 3;
+            policy.retryBackoff = Duration.ofMillis(100);
+            policy.retryMaxBackoff = Duration.ofSeconds(2);
+            policy.retryBudgetRatio = 0.1;
+            policy.retryBudgetMaxTokens = 10;
+            return policy;
+        }
+    }
+}
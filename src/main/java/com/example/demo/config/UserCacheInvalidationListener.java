@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.example.demo.dao.entity.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+// JPA-слухач для User: будь-який запис у таблицю users скидає відповідний запис у UserDetailsCache
+@Component
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    public UserCacheInvalidationListener(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        String username = user.getUserName();
+        userDetailsCache.invalidate(username);
+        // Повторно скидаємо після коміту, щоб паралельний запит не закешував старий стан між flush і commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -9,17 +9,33 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class UserService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    // Є лише з app.datasource.replica.url
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource readWriteRouting;
 
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // UsernameNotFoundException прокидається з loader-а і не кешується
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
 
-        User user = userRepository.findByUserName(username).orElseThrow(()-> new UsernameNotFoundException("Not found"));
+    private UserDetails loadFromDatabase(String username) {
+        Optional<User> found = userRepository.findByUserName(username);
+        // Щойно створений у /auth/login користувач міг ще не дійти до replica
+        if (found.isEmpty() && readWriteRouting != null) {
+            found = readWriteRouting.onPrimary(() -> userRepository.findByUserName(username));
+        }
+        User user = found.orElseThrow(()-> new UsernameNotFoundException("Not found"));
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getUserName())
                 .password(user.getPassword())
@@ -1,45 +1,88 @@
 package com.example.demo.controller;
 
-import com.example.demo.config.JwtUtil;
-import com.example.demo.dao.UserRepository;
 import com.example.demo.dao.entity.User;
+import com.example.demo.dto.TokenPair;
+import com.example.demo.service.LoginService;
+import com.example.demo.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private LoginService loginService;
     @Autowired
-    private PasswordEncoder passwordEncoder;
-    @Autowired
-    private UserRepository userRepository;
+    private TokenService tokenService;
+    @Value("${auth.hashing.retry-after:1}")
+    private long retryAfterSeconds;
 
+    // Потік Tomcat звільняється одразу: bcrypt виконується на пулі PasswordHashingService, запити до БД – на пулі LoginService
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody User inputUser) {
-        System.out.println(" in controller");
-        System.out.println(inputUser.getUserName());
-        System.out.println(inputUser.getPassword());
-        Optional<User> user = userRepository.findByUserName(inputUser.getUserName());
-        if (user.isPresent() ) {
-            String token = jwtUtil.generateToken(inputUser.getUserName());
-            return ResponseEntity.ok(token);
-        }else {
-            User newUser = new User();
-            newUser.setUserName(inputUser.getUserName());
-            newUser.setPassword(passwordEncoder.encode(inputUser.getUserName()));
-            newUser.setRole("USER");
-            userRepository.save(newUser);
-            String token = jwtUtil.generateToken(inputUser.getUserName());
-            return ResponseEntity.ok(token);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User inputUser) {
+        try {
+            return loginService.login(inputUser.getUserName(), inputUser.getPassword())
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(this::loginFailed);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+
+    // Тіло: {"refreshToken": "..."}; старий refresh-токен після цього недійсний
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody TokenPair tokens) {
+        try {
+            return ResponseEntity.ok(tokenService.refresh(tokens.getRefreshToken()));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
         }
+    }
+
+    // Відкликає access-токен із заголовка Authorization і refresh-токен із тіла (якщо передано)
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) TokenPair tokens) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        boolean revoked = tokenService.logout(accessToken, tokens == null ? null : tokens.getRefreshToken());
+        return revoked ? ResponseEntity.noContent().build() : ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    }
 
+    // Лише для ADMIN: {"token": "..."} відкликає один токен, {"username": "..."} – усі видані користувачу
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody Map<String, String> body) {
+        if (body.get("username") != null) {
+            tokenService.revokeAllFor(body.get("username"));
+            return ResponseEntity.noContent().build();
+        }
+        return tokenService.revoke(body.get("token")) ? ResponseEntity.noContent().build() : ResponseEntity.badRequest().build();
+    }
+
+    private ResponseEntity<?> loginFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body("Сервер перевантажений, спробуйте пізніше");
+        }
+        if (cause instanceof BadCredentialsException) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(cause.getMessage());
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new CompletionException(cause);
     }
 
 }
@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.CoinMarketCapService;
+import com.example.demo.service.UpstreamUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/crypto")
+public class CryptoController {
+
+    @Autowired
+    private CoinMarketCapService coinMarketCapService;
+    @Value("${cmc.map.retry-after:1}")
+    private long retryAfterSeconds;
+
+    // Некоректний symbol – 400 без звернення до upstream.
+    // Коло до CoinMarketCap розімкнене, bulkhead або асинхронний пул заповнені – одразу 503 з Retry-After, без очікування таймаутів
+    @GetMapping("/map")
+    public ResponseEntity<?> getMap(@RequestParam(required = false) String symbol) {
+        try {
+            return ResponseEntity.ok(coinMarketCapService.getMap(symbol));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (UpstreamUnavailableException e) {
+            return serviceUnavailable(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return serviceUnavailable("Сервер перевантажений, спробуйте пізніше");
+        }
+    }
+
+    private ResponseEntity<?> serviceUnavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(message);
+    }
+}
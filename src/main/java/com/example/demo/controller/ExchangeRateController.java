@@ -0,0 +1,45 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.NbuRate;
+import com.example.demo.service.ExchangeRateSnapshot;
+import com.example.demo.service.NbuRateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Курси НБУ з in-memory знімка – жодних звернень до bank.gov.ua на запит
+@RestController
+@RequestMapping("/rates")
+public class ExchangeRateController {
+
+    @Autowired
+    private NbuRateService nbuRateService;
+
+    @GetMapping
+    public ResponseEntity<List<NbuRate>> getRates() {
+        ExchangeRateSnapshot snapshot = nbuRateService.snapshot();
+        if (snapshot.size() == 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().header("X-Rates-Fetched-At", snapshot.fetchedAt().toString()).body(snapshot.all());
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<NbuRate> getRate(@PathVariable String code) {
+        ExchangeRateSnapshot snapshot = nbuRateService.snapshot();
+        if (snapshot.size() == 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        NbuRate rate = snapshot.get(code);
+        if (rate == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().header("X-Rates-Fetched-At", snapshot.fetchedAt().toString()).body(rate);
+    }
+}
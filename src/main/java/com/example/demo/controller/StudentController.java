@@ -1,16 +1,41 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.ReadWriteRoutingDataSource;
 import com.example.demo.dao.StudentRepository;
 import com.example.demo.dao.entity.Student;
+import com.example.demo.dto.BatchIngestResult;
+import com.example.demo.dto.StudentPage;
+import com.example.demo.dto.StudentStats;
+import com.example.demo.service.StudentBatchService;
+import com.example.demo.service.StudentExportService;
+import com.example.demo.service.StudentReadCache;
+import com.example.demo.service.StudentSearchIndex;
+import com.example.demo.service.StudentStatistics;
+import com.example.demo.service.StudentStreamService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -19,16 +44,153 @@ public class StudentController {
 
     @Autowired
     private StudentRepository repository;
+    @Autowired
+    private StudentStreamService studentStreamService;
+    @Autowired
+    private StudentBatchService studentBatchService;
+    @Autowired
+    private StudentExportService studentExportService;
+    @Autowired
+    private StudentReadCache readCache;
+    @Autowired
+    private StudentSearchIndex searchIndex;
+    @Autowired
+    private StudentStatistics statistics;
+    // Є лише з app.datasource.replica.url
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource readWriteRouting;
+
+    @Value("${students.page.max-limit:1000}")
+    private int maxPageLimit;
+    @Value("${students.search.max-limit:50}")
+    private int maxSearchLimit;
 
+    // Повний список віддаємо потоком із JDBC-курсора – пам'ять не залежить від розміру таблиці.
+    // Якщо з останнього запису нічого не змінилось – 304 за ETag або готові байти з StudentReadCache.
+    // Тип тіла – саме StreamingResponseBody: ResponseEntity<?> Spring MVC віддав би Jackson, і той серіалізував би лямбду
     @GetMapping
-    public List<Student> getAllStudents() {
+    public ResponseEntity<StreamingResponseBody> getAllStudents(WebRequest webRequest) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null) {
             log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
             return null;
         }
+        long version = readCache.version();
+        String etag = readCache.etag(version);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         log.info("✅ Користувач {} отримує список студентів", auth.getName());
-        return repository.findAll();
+        byte[] cached = readCache.get(version);
+        if (cached != null) {
+            return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(out -> out.write(cached));
+        }
+        StreamingResponseBody body = out -> {
+            StudentReadCache.Capture capture = readCache.capture(out, version);
+            writeAllFromPrimary(capture);
+            capture.publish();
+        };
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Keyset-пагінація: ?limit=50&after=<nextCursor з попередньої сторінки>
+    @GetMapping(params = "limit")
+    public StudentPage getStudentsPage(@RequestParam int limit, @RequestParam(defaultValue = "0") long after) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageLimit));
+        List<Student> items = repository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize));
+        Long nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).getId();
+        return new StudentPage(items, nextCursor);
+    }
+
+    // Typeahead: ?q=шев&classNumber=5 – префіксний пошук за іменем/прізвищем з індексу в пам'яті, без БД
+    @GetMapping("/search")
+    public ResponseEntity<List<Student>> searchStudents(@RequestParam(defaultValue = "") String q,
+                                                        @RequestParam(required = false) Integer classNumber,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(searchIndex.search(q, classNumber, Math.max(1, Math.min(limit, maxSearchLimit))));
+    }
+
+    // Повний знімок для звітів: ?format=csv|ndjson. Байти з COPY ... TO STDOUT ідуть у відповідь без сутностей і Jackson;
+    // gzip на льоту, якщо клієнт приймає gzip з q > 0 (Accept-Encoding: gzip;q=0 – явна відмова)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(@RequestParam(defaultValue = "csv") String format,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        StudentExportService.Format exportFormat = StudentExportService.Format.parse(format);
+        if (exportFormat == null) {
+            // Тіло теж потокове: StreamingResponseBody Spring MVC обробляє лише за типом ResponseEntity<StreamingResponseBody>
+            byte[] message = ("Невідомий формат: " + format + " (csv або ndjson)").getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(out -> out.write(message));
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        log.info("✅ Користувач {} експортує студентів ({}{})", auth.getName(), exportFormat.extension(), gzip ? ", gzip" : "");
+        StreamingResponseBody body = out -> studentExportService.export(exportFormat, out, gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("students." + exportFormat.extension()).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // RFC 7231, 5.3.4: вага gzip (або x-gzip), інакше вага "*"; кодування без q має вагу 1, некоректне q – 0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipWeight = -1;
+        double anyWeight = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double weight = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+                    try {
+                        weight = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        weight = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipWeight = Math.max(gzipWeight, weight);
+            } else if (name.equals("*")) {
+                anyWeight = Math.max(anyWeight, weight);
+            }
+        }
+        return (gzipWeight >= 0 ? gzipWeight : anyWeight) > 0;
+    }
+
+    // Статистика по класах з лічильників у пам'яті – час відповіді не залежить від розміру таблиці
+    @GetMapping("/stats")
+    public ResponseEntity<StudentStats> getStudentStats() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(statistics.snapshot());
     }
 
     @PostMapping
@@ -40,10 +202,72 @@ public class StudentController {
         }
         log.info("✅ Користувач {} отримує список студентів", auth.getName());
         Student studentForSave = student;
-        repository.save(student);
+        // Вставка чи оновлення – за самим записом, а не за індексом пошуку: його могла щойно заповнити перебудова
+        Student previous = student.getId() == null ? null : previousVersion(student.getId());
+        Student saved = repository.save(student);
+        searchIndex.put(saved);
+        if (previous == null) {
+            statistics.record(saved);
+        } else {
+            statistics.replace(previous, saved);
+        }
+        readCache.bump();
         return ResponseEntity.status(HttpStatus.CREATED).body(studentForSave);
     }
 
+    // Пакетне завантаження: JSON-масив, JSON lines (application/x-ndjson) або CSV; тіло читається потоком
+    @PostMapping(value = "/batch", consumes = {"application/json", "application/x-ndjson", "application/jsonl", "text/csv"})
+    public ResponseEntity<BatchIngestResult> addStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                         InputStream body) throws IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            log.info("Користувач НЕ АВТОРИЗОВАНИЙ. Доступ до /students заборонений!");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        BatchIngestResult result;
+        // id вставлених рядків невідомі: після завантаження індекс дочитує все, що новіше за цей id.
+        // Статистика – лише з рядків, які закомітило саме це завантаження
+        long indexedUpTo = searchIndex.maxId();
+        StudentStatistics.Delta inserted = new StudentStatistics.Delta();
+        try {
+            result = studentBatchService.ingest(body, contentType, inserted);
+        } finally {
+            statistics.record(inserted);
+            readCache.bump();
+            searchIndex.catchUp(indexedUpTo);
+        }
+        log.info("✅ Користувач {} завантажив студентів: {} з {} ({})",
+                auth.getName(), result.getInserted(), result.getReceived(), result.getMode());
+        HttpStatus status = result.getInserted() > 0 || result.getErrors().isEmpty() ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(result);
+    }
 
+    // Список, який потрапляє в кеш під версією version, читається з primary: replica могла ще не отримати запис,
+    // після якого версію збільшено, і застарілі байти лежали б у кеші під новим ETag
+    private void writeAllFromPrimary(OutputStream out) throws IOException {
+        if (readWriteRouting == null) {
+            studentStreamService.writeAllAsJsonArray(out);
+            return;
+        }
+        try {
+            readWriteRouting.onPrimary(() -> {
+                try {
+                    studentStreamService.writeAllAsJsonArray(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
+    // Копія рядка з primary до збереження: керована сутність змінилася б разом із merge у save
+    private Student previousVersion(long id) {
+        Supplier<Optional<Student>> find = () -> repository.findById(id);
+        Optional<Student> found = readWriteRouting == null ? find.get() : readWriteRouting.onPrimary(find);
+        return found.map(current -> new Student(current.getId(), current.getFirstName(), current.getLastName(),
+                current.getClassNumber())).orElse(null);
+    }
 }
@@ -0,0 +1,54 @@
+package com.example.demo.dao;
+
+import com.example.demo.dao.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    long countByExpiresAtAfter(Instant now);
+
+    // Лише ще чинні відкликання – з них перебудовується Bloom-фільтр. Потребує відкритої транзакції
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    Stream<RevokedToken> streamByExpiresAtAfter(Instant now);
+
+    // Відкликання, записані іншими вузлами після since, – ними фільтр доповнюється між перебудовами
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(Instant since, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    /**
+     * Атомарне відкликання одного jti: 1 – рядок вставлено цим викликом, 0 – jti уже був відкликаний раніше
+     * (у т.ч. паралельним запитом на іншому вузлі).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, username, expires_at, revoked_at) "
+            + "VALUES (:jti, :userName, :expiresAt, :revokedAt) ON CONFLICT (jti) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("userName") String userName,
+                       @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+    // Відкликання всіх токенів користувача: повторне лише посуває revoked_at і expires_at
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, username, expires_at, revoked_at) "
+            + "VALUES (:jti, :userName, :expiresAt, :revokedAt) "
+            + "ON CONFLICT (jti) DO UPDATE SET expires_at = EXCLUDED.expires_at, revoked_at = EXCLUDED.revoked_at", nativeQuery = true)
+    int upsert(@Param("jti") String jti, @Param("userName") String userName,
+               @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dao;
+
+// Рядок агрегату студентів за (класом, першою літерою прізвища) – з нього сідуються і звіряються StudentStatistics
+public interface StudentClassAggregate {
+
+    int getClassNumber();
+
+    // null, якщо прізвище порожнє
+    String getInitial();
+
+    long getStudents();
+
+    long getFirstNameChars();
+
+    long getLastNameChars();
+}
@@ -1,9 +1,39 @@
 package com.example.demo.dao;
 
 import com.example.demo.dao.entity.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
 
+
+// Читання за замовчуванням у readOnly транзакції – з ReadWriteRoutingDataSource вони йдуть у replica
 @Component
-public interface StudentRepository extends JpaRepository<Student, Long> {}
+@Transactional(readOnly = true)
+public interface StudentRepository extends JpaRepository<Student, Long> {
+
+    // Keyset-пагінація: наступна сторінка після останнього id, без OFFSET
+    List<Student> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Курсор JDBC з фіксованим fetch size; викликати лише в транзакції і закривати Stream
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    Stream<Student> streamAllByOrderByIdAsc();
+
+    // Один GROUP BY на всю таблицю: кількість і сумарні довжини імен по (клас, перша літера прізвища).
+    // Завжди з primary: звірка з replica, що відстає, показала б хибну розбіжність
+    @Transactional
+    @Query(value = "SELECT class_number AS \"classNumber\", UPPER(LEFT(last_name, 1)) AS \"initial\", "
+            + "COUNT(*) AS \"students\", COALESCE(SUM(LENGTH(first_name)), 0) AS \"firstNameChars\", "
+            + "COALESCE(SUM(LENGTH(last_name)), 0) AS \"lastNameChars\" "
+            + "FROM students GROUP BY class_number, UPPER(LEFT(last_name, 1))", nativeQuery = true)
+    List<StudentClassAggregate> aggregateByClassAndInitial();
+}
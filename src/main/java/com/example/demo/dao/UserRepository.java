@@ -2,10 +2,26 @@ package com.example.demo.dao;
 
 import com.example.demo.dao.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+// Читання за замовчуванням у readOnly транзакції – з ReadWriteRoutingDataSource вони йдуть у replica
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User,Long> {
 
     Optional<User> findByUserName(String userName);
+
+    /**
+     * Реєстрація за один round trip: вставляє нового користувача і повертає його рядок.
+     * Якщо username уже зайнятий (паралельний вхід того ж користувача), рядок не змінюється і результат порожній.
+     * Потребує унікального індексу на username.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO users (username, password, role) VALUES (:userName, :password, :role) "
+            + "ON CONFLICT (username) DO NOTHING "
+            + "RETURNING id, username, password, role", nativeQuery = true)
+    Optional<User> insertIfAbsent(@Param("userName") String userName, @Param("password") String password, @Param("role") String role);
 }
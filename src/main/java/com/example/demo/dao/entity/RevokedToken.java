@@ -0,0 +1,29 @@
+package com.example.demo.dao.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// Відкликаний JWT (за jti) або всі токени користувача, випущені до revokedAt (jti = "user:" + username)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    @Column(name = "jti")
+    private String jti;
+    @Basic
+    @Column(name = "username")
+    private String userName;
+    @Basic
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+    @Basic
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+}
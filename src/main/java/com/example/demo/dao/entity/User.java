@@ -1,6 +1,7 @@
 package com.example.demo.dao.entity;
 
 
+import com.example.demo.config.UserCacheInvalidationListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,13 +14,14 @@ import javax.persistence.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name="users")
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private  Long id;
     @Basic
-    @Column(name = "username")
+    @Column(name = "username", unique = true)
     @JsonProperty("username")
     private String userName;
     @Basic
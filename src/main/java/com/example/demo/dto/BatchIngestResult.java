@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Звіт про пакетне завантаження студентів: скільки прочитано/вставлено і помилки по рядках
+@Data
+@NoArgsConstructor
+public class BatchIngestResult {
+
+    private String mode;
+    private long received;
+    private long inserted;
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 0 – помилка всього пакета, а не конкретного рядка
+        private long row;
+        private String message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Один елемент масиву data з CoinMarketCap /v1/cryptocurrency/map
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CryptoCurrency {
+    private long id;
+    private Integer rank;
+    private String name;
+    private String symbol;
+    private String slug;
+    @JsonProperty("is_active")
+    private Integer isActive;
+    @JsonProperty("first_historical_data")
+    private String firstHistoricalData;
+    @JsonProperty("last_historical_data")
+    private String lastHistoricalData;
+    // null для монет із власним блокчейном
+    private Platform platform;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Platform {
+        private long id;
+        private String name;
+        private String symbol;
+        private String slug;
+        @JsonProperty("token_address")
+        private String tokenAddress;
+    }
+}
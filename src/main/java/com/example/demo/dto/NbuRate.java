@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Один запис довідника курсів НБУ (bank.gov.ua/NBUStatService/v1/statdirectory/exchange)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NbuRate {
+    private int r030;
+    private String txt;
+    private double rate;
+    private String cc;
+    private String exchangedate;
+}
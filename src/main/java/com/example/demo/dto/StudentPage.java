@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.example.demo.dao.entity.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Одна сторінка keyset-пагінації; nextCursor = null, якщо далі даних немає
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPage {
+    private List<Student> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Відповідь /students/stats: лічильники по класах, які підтримуються інкрементально і періодично звіряються з БД
+@Data
+@NoArgsConstructor
+public class StudentStats {
+
+    private long total;
+    private List<ClassStats> classes = new ArrayList<>();
+    // Час останньої звірки з БД і скільки разів за весь час лічильники довелося виправляти
+    private Instant reconciledAt;
+    private long driftCorrections;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassStats {
+        private int classNumber;
+        private long students;
+        private double avgFirstNameLength;
+        private double avgLastNameLength;
+        // Перша літера прізвища -> кількість; "?" – інші символи
+        private Map<String, Long> lastNameInitials = new LinkedHashMap<>();
+    }
+}
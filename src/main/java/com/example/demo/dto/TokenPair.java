@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Відповідь /auth/login і /auth/refresh: короткий access-токен і refresh-токен для його оновлення
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenPair {
+    private String accessToken;
+    private String refreshToken;
+    // Час життя access-токена, секунд
+    private long expiresIn;
+}
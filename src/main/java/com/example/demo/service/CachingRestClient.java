@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CryptoCurrency;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Кеш відповідей зовнішніх GET-запитів (CoinMarketCap) поверх RestTemplateService.
+ * Масив data читається потоково (streamArray) у типізовані CryptoCurrency – ні тіло, ні дерево JsonNode
+ * всієї відповіді в пам'яті не тримаються.
+ * Ключ – URL + параметри, відсортовані за іменем. Одночасні однакові запити чекають на один
+ * спільний виклик upstream (single-flight), невдалі відповіді не кешуються.
+ * У режимі stale-while-revalidate прострочений запис ще віддається, поки у фоні йде оновлення.
+ */
+@Slf4j
+@Component
+public class CachingRestClient {
+
+    private final RestTemplateService restTemplateService;
+    // Ключ API CoinMarketCap; у ключ кешу не входить
+    private final HttpHeaders headers;
+    private final AsyncLoadingCache<RequestKey, List<CryptoCurrency>> cache;
+
+    public CachingRestClient(RestTemplateService restTemplateService,
+                             @Qualifier("coinMarketCapHeaders") HttpHeaders headers,
+                             @Value("${cmc.cache.ttl:60s}") Duration ttl,
+                             @Value("${cmc.cache.max-size:1000}") long maxSize,
+                             @Value("${cmc.cache.stale-while-revalidate:false}") boolean staleWhileRevalidate,
+                             @Value("${cmc.cache.max-stale:5m}") Duration maxStale) {
+        this.restTemplateService = restTemplateService;
+        this.headers = headers;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats();
+        if (staleWhileRevalidate) {
+            // Після ttl запис ще живе maxStale: перше звернення віддає старе значення і запускає фонове оновлення
+            builder.refreshAfterWrite(ttl).expireAfterWrite(ttl.plus(maxStale));
+        } else {
+            builder.expireAfterWrite(ttl);
+        }
+        this.cache = builder.buildAsync((key, executor) ->
+                this.restTemplateService.getArrayAsync(key.url, key.params, this.headers, "data", CryptoCurrency.class));
+    }
+
+    public CompletableFuture<List<CryptoCurrency>> getAsync(String url, Map<String, String> paramMap) {
+        return cache.get(new RequestKey(url, paramMap));
+    }
+
+    public List<CryptoCurrency> get(String url, Map<String, String> paramMap) {
+        try {
+            return getAsync(url, paramMap).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private static final class RequestKey {
+        private final String url;
+        private final Map<String, String> params;
+        private final String normalized;
+
+        private RequestKey(String url, Map<String, String> paramMap) {
+            this.url = url;
+            Map<String, String> sorted = new TreeMap<>();
+            if (paramMap != null) {
+                paramMap.forEach((k, v) -> sorted.put(k.trim(), v == null ? "" : v.trim()));
+            }
+            this.params = Collections.unmodifiableMap(new LinkedHashMap<>(sorted));
+            StringBuilder builder = new StringBuilder(url.trim());
+            sorted.forEach((k, v) -> builder.append('\u0000').append(k).append('=').append(v));
+            this.normalized = builder.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RequestKey && normalized.equals(((RequestKey) o).normalized);
+        }
+
+        @Override
+        public int hashCode() {
+            return normalized.hashCode();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+/**
+ * Circuit breaker з вікном за кількістю: останні slidingWindowSize результатів у кільцевому буфері.
+ * CLOSED – виклики йдуть, OPEN – одразу відмова до кінця openDuration, HALF_OPEN – пропускається
+ * halfOpenCalls пробних викликів: усі успішні замикають коло, будь-яка невдача знову розмикає.
+ * Кожен дозвіл з tryAcquire() має завершитись рівно одним onSuccess()/onFailure()/onIgnored().
+ * Стан змінюється під монітором – секції короткі, а самі виклики мережеві, тож конкуренції за лок практично немає.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        // Значення для gauge http.client.circuit.state
+        final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+    }
+
+    @FunctionalInterface
+    interface Listener {
+        void onTransition(State from, State to, double failureRate);
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Listener listener;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(double failureRateThreshold, int minimumCalls, int slidingWindowSize,
+                   long openNanos, int halfOpenCalls, Listener listener) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[Math.max(1, slidingWindowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.openNanos = openNanos;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.listener = listener;
+    }
+
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                halfOpenPermits = halfOpenCalls - 1;
+                halfOpenSuccesses = 0;
+                return true;
+            default:
+                if (halfOpenPermits > 0) {
+                    halfOpenPermits--;
+                    return true;
+                }
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+        // Результати викликів, що стартували до розмикання, у стані OPEN нічого не змінюють
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= minimumCalls && failureRate() >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    // Дозвіл не використано (виклик так і не стартував) – повертаємо пробний слот HALF_OPEN
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    State state() {
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return windowCalls == 0 ? 0 : (double) windowFailures / windowCalls;
+    }
+
+    synchronized int windowCalls() {
+        return windowCalls;
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        transition(State.OPEN);
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+
+    private void transition(State next) {
+        State previous = state;
+        if (previous != next) {
+            double rate = failureRate();
+            state = next;
+            listener.onTransition(previous, next, rate);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import com.example.demo.config.QueryBindingProperties;
+import com.example.demo.dto.CryptoCurrency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// CoinMarketCap /v1/cryptocurrency/map через CachingRestClient – квота upstream витрачається раз на ключ за TTL
+@Service
+public class CoinMarketCapService {
+
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9]{1,10}");
+
+    private final CachingRestClient cachingRestClient;
+    private final QueryBindingProperties queryBindingProperties;
+    private final String mapUrl;
+    // Кожен інший набір символів – окремий запис кешу і окремий виклик upstream, тож кількість обмежена
+    private final int maxSymbols;
+
+    public CoinMarketCapService(CachingRestClient cachingRestClient,
+                                QueryBindingProperties queryBindingProperties,
+                                @Value("${url.cryptocurrency}") String mapUrl,
+                                @Value("${cmc.map.max-symbols:20}") int maxSymbols) {
+        this.cachingRestClient = cachingRestClient;
+        this.queryBindingProperties = queryBindingProperties;
+        this.mapUrl = mapUrl;
+        this.maxSymbols = maxSymbols;
+    }
+
+    /**
+     * symbols – список через кому; null або порожній – беремо query.byding.queryParamMap.symbol.
+     * Символи нормалізуються (верхній регістр, без пробілів), щоб "eth, usdt" і "ETH,USDT" ділили один запис кешу.
+     * IllegalArgumentException, якщо символ не відповідає [A-Z0-9]{1,10} або символів більше за cmc.map.max-symbols.
+     */
+    public List<CryptoCurrency> getMap(String symbols) {
+        Map<String, String> params = new LinkedHashMap<>(queryBindingProperties.getQueryParamMap());
+        if (StringUtils.hasText(symbols)) {
+            params.put("symbol", symbols);
+        }
+        String symbol = params.get("symbol");
+        if (symbol != null) {
+            List<String> normalized = Arrays.stream(symbol.split(","))
+                    .map(s -> s.trim().toUpperCase(Locale.ROOT))
+                    .filter(s -> !s.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+            if (normalized.size() > maxSymbols) {
+                throw new IllegalArgumentException("Забагато символів: не більше " + maxSymbols);
+            }
+            for (String s : normalized) {
+                if (!SYMBOL.matcher(s).matches()) {
+                    throw new IllegalArgumentException("Недопустимий символ: очікується [A-Z0-9]{1,10}");
+                }
+            }
+            params.put("symbol", String.join(",", normalized));
+        }
+        return cachingRestClient.get(mapUrl, params);
+    }
+}
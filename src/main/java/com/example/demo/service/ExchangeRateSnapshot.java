@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.NbuRate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Незмінний знімок курсів НБУ. Код валюти з трьох латинських літер перетворюється на число 0..17575
+ * і є індексом у таблиці позицій, тож пошук не хешує рядок і нічого не алокує.
+ */
+public final class ExchangeRateSnapshot {
+
+    private static final int CODE_SPACE = 26 * 26 * 26;
+
+    public static final ExchangeRateSnapshot EMPTY = new ExchangeRateSnapshot(new ArrayList<>(), Instant.EPOCH);
+
+    private final short[] positions = new short[CODE_SPACE]; // позиція + 1, 0 – валюти немає
+    private final String[] codes;
+    private final String[] names;
+    private final int[] numericCodes;
+    private final double[] rates;
+    private final String exchangeDate;
+    private final Instant fetchedAt;
+
+    public ExchangeRateSnapshot(List<NbuRate> source, Instant fetchedAt) {
+        List<NbuRate> valid = new ArrayList<>(source.size());
+        for (NbuRate rate : source) {
+            if (index(rate.getCc()) >= 0 && valid.size() < Short.MAX_VALUE) {
+                valid.add(rate);
+            }
+        }
+        int size = valid.size();
+        this.codes = new String[size];
+        this.names = new String[size];
+        this.numericCodes = new int[size];
+        this.rates = new double[size];
+        for (int i = 0; i < size; i++) {
+            NbuRate rate = valid.get(i);
+            codes[i] = rate.getCc().toUpperCase();
+            names[i] = rate.getTxt();
+            numericCodes[i] = rate.getR030();
+            rates[i] = rate.getRate();
+            positions[index(codes[i])] = (short) (i + 1);
+        }
+        this.exchangeDate = size == 0 ? null : valid.get(0).getExchangedate();
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Double.NaN, якщо валюти немає у знімку
+    public double rate(CharSequence code) {
+        int position = position(code);
+        return position < 0 ? Double.NaN : rates[position];
+    }
+
+    public boolean contains(CharSequence code) {
+        return position(code) >= 0;
+    }
+
+    public NbuRate get(CharSequence code) {
+        int position = position(code);
+        return position < 0 ? null : toRate(position);
+    }
+
+    public List<NbuRate> all() {
+        List<NbuRate> result = new ArrayList<>(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            result.add(toRate(i));
+        }
+        return result;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public String exchangeDate() {
+        return exchangeDate;
+    }
+
+    public Instant fetchedAt() {
+        return fetchedAt;
+    }
+
+    public List<String> codes() {
+        return Arrays.asList(codes.clone());
+    }
+
+    private NbuRate toRate(int position) {
+        return new NbuRate(numericCodes[position], names[position], rates[position], codes[position], exchangeDate);
+    }
+
+    private int position(CharSequence code) {
+        int index = index(code);
+        return index < 0 ? -1 : positions[index] - 1;
+    }
+
+    private static int index(CharSequence code) {
+        if (code == null || code.length() != 3) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = Character.toUpperCase(code.charAt(i)) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            result = result * 26 + letter;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.config.ReadWriteRoutingDataSource;
+import com.example.demo.config.UserDetailsCache;
+import com.example.demo.dao.UserRepository;
+import com.example.demo.dao.entity.User;
+import com.example.demo.dto.TokenPair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Вхід з реєстрацією "на льоту": невідомого користувача створюємо з переданим паролем, відомого – перевіряємо.
+ * Для користувачів, які вже є в UserDetailsCache, БД не потрібна зовсім – лише перевірка пароля.
+ * Інакше спершу шукаємо користувача: для наявного – лише matches, encode і INSERT ... ON CONFLICT DO NOTHING
+ * тільки для нового. BCrypt виконується на PasswordHashingService, запити до БД – на окремому обмеженому пулі,
+ * щоб очікування з'єднання не займало потоки хешування.
+ */
+@Slf4j
+@Service
+public class LoginService {
+
+    private static final String DEFAULT_ROLE = "USER";
+
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final PasswordHashingService passwordHashing;
+    private final JwtUtil jwtUtil;
+    private final JdbcTemplate jdbcTemplate;
+    // Є лише з app.datasource.replica.url
+    private final ReadWriteRoutingDataSource readWriteRouting;
+    private final ThreadPoolExecutor databaseExecutor;
+
+    // false, якщо унікальний індекс на users.username створити не вдалося (дублікати) – тоді ON CONFLICT недоступний
+    private volatile boolean insertIfAbsentSupported = true;
+
+    public LoginService(UserRepository userRepository, UserDetailsCache userDetailsCache,
+                        PasswordHashingService passwordHashing, JwtUtil jwtUtil, JdbcTemplate jdbcTemplate,
+                        ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting,
+                        Environment environment,
+                        @Value("${auth.login.db-threads:0}") int databaseThreads,
+                        @Value("${auth.login.db-queue-capacity:256}") int databaseQueueCapacity) {
+        this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.passwordHashing = passwordHashing;
+        this.jwtUtil = jwtUtil;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readWriteRouting = readWriteRouting.getIfAvailable();
+        if (databaseThreads <= 0) {
+            databaseThreads = hikariPoolSize(environment);
+        }
+        this.databaseExecutor = new ThreadPoolExecutor(databaseThreads, databaseThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(databaseQueueCapacity), new CustomizableThreadFactory("login-db-"));
+        this.databaseExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    // Binder, а не ${...}: розмір пулу може бути записаний як maximum-pool-size, maximumPoolSize чи змінною оточення
+    private static int hikariPoolSize(Environment environment) {
+        return Binder.get(environment).bind("spring.datasource.hikari.maximum-pool-size", Integer.class).orElse(10);
+    }
+
+    @PostConstruct
+    public void ensureUsernameIndex() {
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS users_username_uindex ON users (username)");
+        } catch (DataIntegrityViolationException e) {
+            insertIfAbsentSupported = false;
+            log.warn("У users є дублікати username, унікальний індекс не створено – реєстрація працюватиме через findByUserName + save: {}",
+                    e.getMostSpecificCause().getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Не вдалося перевірити унікальний індекс на users.username: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        databaseExecutor.shutdown();
+    }
+
+    /**
+     * Повертає пару access/refresh-токенів. Future завершується з BadCredentialsException при невірному паролі
+     * і з RejectedExecutionException, якщо пул хешування або пул запитів до БД перевантажений.
+     */
+    public CompletableFuture<TokenPair> login(String userName, String password) {
+        if (!StringUtils.hasText(userName) || !StringUtils.hasText(password)) {
+            throw new IllegalArgumentException("username і password обов'язкові");
+        }
+        UserDetails cached = userDetailsCache.getIfPresent(userName);
+        if (cached != null) {
+            return passwordHashing.matches(password, cached.getPassword())
+                    .thenApply(matches -> issueToken(matches, userName, TokenService.roles(cached)));
+        }
+        return onDatabase(() -> findUser(userName)).thenCompose(existing -> existing
+                .map(user -> verify(password, user))
+                .orElseGet(() -> register(userName, password)));
+    }
+
+    // Хеш рахуємо лише для нового користувача; якщо паралельний вхід встиг його створити – перевіряємо пароль з його рядка
+    private CompletableFuture<TokenPair> register(String userName, String password) {
+        return passwordHashing.encode(password)
+                .thenCompose(hash -> onDatabase(() -> insertIfAbsent(userName, hash)))
+                .thenCompose(inserted -> inserted
+                        .map(user -> CompletableFuture.completedFuture(issueToken(true, userName, Collections.singletonList(user.getRole()))))
+                        .orElseGet(() -> onDatabase(() -> onPrimary(() -> userRepository.findByUserName(userName)))
+                                .thenCompose(existing -> verify(password, existing.orElseThrow(() ->
+                                        new IllegalStateException("Користувача " + userName + " не вдалося ні створити, ні знайти"))))));
+    }
+
+    private CompletableFuture<TokenPair> verify(String password, User user) {
+        return passwordHashing.matches(password, user.getPassword())
+                .thenApply(matches -> issueToken(matches, user.getUserName(), Collections.singletonList(user.getRole())));
+    }
+
+    // Щойно створений користувач міг ще не дійти до replica
+    private Optional<User> findUser(String userName) {
+        Optional<User> found = userRepository.findByUserName(userName);
+        if (found.isEmpty() && readWriteRouting != null) {
+            found = readWriteRouting.onPrimary(() -> userRepository.findByUserName(userName));
+        }
+        return found;
+    }
+
+    private Optional<User> insertIfAbsent(String userName, String hash) {
+        if (insertIfAbsentSupported) {
+            return userRepository.insertIfAbsent(userName, hash, DEFAULT_ROLE);
+        }
+        if (onPrimary(() -> userRepository.findByUserName(userName)).isPresent()) {
+            return Optional.empty();
+        }
+        User newUser = new User();
+        newUser.setUserName(userName);
+        newUser.setPassword(hash);
+        newUser.setRole(DEFAULT_ROLE);
+        return Optional.of(userRepository.save(newUser));
+    }
+
+    private <T> T onPrimary(Supplier<T> action) {
+        return readWriteRouting == null ? action.get() : readWriteRouting.onPrimary(action);
+    }
+
+    private <T> CompletableFuture<T> onDatabase(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, databaseExecutor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private TokenPair issueToken(boolean passwordMatches, String userName, List<String> roles) {
+        if (!passwordMatches) {
+            throw new BadCredentialsException("Невірний логін або пароль");
+        }
+        return jwtUtil.issueTokens(userName, roles);
+    }
+}
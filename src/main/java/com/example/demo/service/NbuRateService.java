@@ -0,0 +1,167 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.NbuRate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Курси НБУ в пам'яті. Довідник перечитується за розкладом (nbu.refresh-interval) через RestTemplateService
+ * і публікується атомарною заміною ExchangeRateSnapshot. Читачі не беруть локів і не ходять у мережу.
+ * Якщо оновлення не вдалось, лишається останній успішний знімок.
+ */
+@Slf4j
+@Service
+public class NbuRateService {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final RestTemplateService restTemplateService;
+    private final String jsonUrl;
+    private final String xmlUrl;
+    private final String format;
+    private final boolean refreshEnabled;
+
+    private final AtomicReference<ExchangeRateSnapshot> snapshot = new AtomicReference<>(ExchangeRateSnapshot.EMPTY);
+    private final AtomicLong failedRefreshes = new AtomicLong();
+    private volatile String lastError;
+
+    // @Lazy: HTTP-стек створюється при першому оновленні в потоці планувальника, а не під час старту контексту
+    public NbuRateService(@Lazy RestTemplateService restTemplateService,
+                          @Value("${url.nbu.json}") String jsonUrl,
+                          @Value("${url.nbu.xml}") String xmlUrl,
+                          @Value("${nbu.format:json}") String format,
+                          @Value("${nbu.refresh.enabled:true}") boolean refreshEnabled) {
+        this.restTemplateService = restTemplateService;
+        this.jsonUrl = jsonUrl;
+        this.xmlUrl = xmlUrl;
+        this.format = format;
+        this.refreshEnabled = refreshEnabled;
+    }
+
+    public ExchangeRateSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Double.NaN, якщо курсу немає
+    public double rate(CharSequence code) {
+        return snapshot.get().rate(code);
+    }
+
+    public long failedRefreshes() {
+        return failedRefreshes.get();
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    @Scheduled(initialDelayString = "${nbu.refresh.initial-delay:0}", fixedDelayString = "${nbu.refresh-interval:3600000}")
+    public void scheduledRefresh() {
+        if (refreshEnabled) {
+            refresh();
+        }
+    }
+
+    // true, якщо новий знімок опубліковано
+    public boolean refresh() {
+        try {
+            List<NbuRate> rates = "xml".equalsIgnoreCase(format)
+                    ? restTemplateService.readBody(xmlUrl, Collections.emptyMap(), NbuRateService::parseXml)
+                    : fetchJson();
+            if (rates == null || rates.isEmpty()) {
+                throw new IllegalStateException("НБУ повернув порожній довідник");
+            }
+            ExchangeRateSnapshot next = new ExchangeRateSnapshot(rates, Instant.now());
+            snapshot.set(next);
+            lastError = null;
+            log.info("Курси НБУ оновлено: {} валют на {}", next.size(), next.exchangeDate());
+            return true;
+        } catch (RuntimeException e) {
+            failedRefreshes.incrementAndGet();
+            lastError = e.getMessage();
+            log.warn("Не вдалося оновити курси НБУ, лишаємо знімок від {}: {}", snapshot.get().fetchedAt(), e.getMessage());
+            return false;
+        }
+    }
+
+    private List<NbuRate> fetchJson() {
+        List<NbuRate> rates = new ArrayList<>(64);
+        restTemplateService.streamArray(jsonUrl, Collections.emptyMap(), null, NbuRate.class, rates::add);
+        return rates;
+    }
+
+    // StAX: <exchange><currency><r030/><txt/><rate/><cc/><exchangedate/></currency>...</exchange>
+    static List<NbuRate> parseXml(InputStream body) throws IOException {
+        List<NbuRate> rates = new ArrayList<>(64);
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(body);
+            try {
+                NbuRate current = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("currency".equals(name)) {
+                            current = new NbuRate();
+                        } else if (current != null) {
+                            setField(current, name, reader.getElementText().trim());
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "currency".equals(reader.getLocalName()) && current != null) {
+                        rates.add(current);
+                        current = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IllegalStateException("Не можливо розібрати XML НБУ: " + e.getMessage(), e);
+        }
+        return rates;
+    }
+
+    private static void setField(NbuRate rate, String name, String value) {
+        switch (name) {
+            case "r030":
+                rate.setR030(Integer.parseInt(value));
+                break;
+            case "txt":
+                rate.setTxt(value);
+                break;
+            case "rate":
+                rate.setRate(Double.parseDouble(value));
+                break;
+            case "cc":
+                rate.setCc(value);
+                break;
+            case "exchangedate":
+                rate.setExchangedate(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Конвертація DTO -> Map і Map -> DTO без проміжного JsonNode.
+ * Імена властивостей, @JsonNaming, @JsonProperty, @JsonIgnore, @JsonIgnoreProperties і @JsonInclude
+ * береться з інтроспекції того самого ObjectMapper один раз на клас, доступ до полів – через MethodHandle.
+ * Класи, які так відтворити не вдається (creator-конструктори, NON_DEFAULT/CUSTOM inclusion, властивості
+ * з @JsonFormat, @JsonSerialize/@JsonDeserialize, @JsonRawValue тощо), конвертуються як раніше – через valueToTree/convertValue.
+ */
+@Component
+public class ObjectMapConverter {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    // Анотації властивості, що змінюють серіалізацію самого значення: окремий valueToTree(value) їх не бачить
+    private static final List<Class<? extends Annotation>> VALUE_SERIALIZATION_ANNOTATIONS = List.of(
+            JsonFormat.class, JsonSerialize.class, JsonRawValue.class, JsonUnwrapped.class, JsonTypeInfo.class, JsonView.class);
+    // Те саме для читання: convertValue(value, javaType) бачить лише тип, а не анотації властивості
+    private static final List<Class<? extends Annotation>> VALUE_DESERIALIZATION_ANNOTATIONS = List.of(
+            JsonFormat.class, JsonDeserialize.class, JsonUnwrapped.class, JsonTypeInfo.class, JsonView.class);
+
+    private final ObjectMapper objectMapper;
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private final ClassValue<Writer> writers = new ClassValue<Writer>() {
+        @Override
+        protected Writer computeValue(Class<?> type) {
+            return createWriter(type);
+        }
+    };
+
+    private final ClassValue<Reader> readers = new ClassValue<Reader>() {
+        @Override
+        protected Reader computeValue(Class<?> type) {
+            return createReader(type);
+        }
+    };
+
+    public ObjectMapConverter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Map<String, Object> toMap(Object source) {
+        if (source == null) {
+            return null;
+        }
+        Writer writer = writers.get(source.getClass());
+        if (writer == null) {
+            return objectMapper.convertValue(objectMapper.valueToTree(source), MAP_TYPE);
+        }
+        Map<String, Object> result = new LinkedHashMap<>(capacity(writer.names.length));
+        try {
+            for (int i = 0; i < writer.names.length; i++) {
+                Object value = writer.getters[i].invokeExact(source);
+                if (value == null) {
+                    if (writer.includeNulls[i]) {
+                        result.put(writer.names[i], null);
+                    }
+                    continue;
+                }
+                if (writer.skipEmpty[i] && isEmpty(value)) {
+                    continue;
+                }
+                result.put(writer.names[i], toJsonValue(value));
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не можливо виконати конвертацію у Map: " + e, e);
+        }
+        return result;
+    }
+
+    public <T> T fromMap(Map<String, ?> source, Class<T> type) {
+        if (source == null) {
+            return null;
+        }
+        Reader reader = readers.get(type);
+        if (reader == null) {
+            return objectMapper.convertValue(source, type);
+        }
+        try {
+            Object target = reader.constructor.invokeExact();
+            for (Map.Entry<String, ?> entry : source.entrySet()) {
+                Property property = reader.properties.get(entry.getKey());
+                if (property == null) {
+                    if (reader.failOnUnknown) {
+                        throw new IllegalArgumentException("Невідома властивість '" + entry.getKey() + "' для " + type.getName());
+                    }
+                    continue;
+                }
+                Object value = entry.getValue();
+                if (value == null) {
+                    if (property.primitive) {
+                        continue;
+                    }
+                } else if (!property.direct || !property.boxedType.isInstance(value)) {
+                    value = objectMapper.convertValue(value, property.javaType);
+                }
+                property.setter.invokeExact(target, value);
+            }
+            return type.cast(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не можливо виконати конвертацію з Map у " + type.getName() + ": " + e, e);
+        }
+    }
+
+    // Прості значення кладемо як є (саме такі типи дає JsonNode round trip), складні (вкладені DTO, дати,
+    // BigDecimal) – тим самим round trip, щоб результат збігався з попередньою реалізацією
+    private Object toJsonValue(Object value) {
+        if (value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Boolean || value instanceof Double) {
+            return value;
+        }
+        return objectMapper.convertValue(objectMapper.valueToTree(value), Object.class);
+    }
+
+    private static boolean isEmpty(Object value) {
+        return (value instanceof CharSequence && ((CharSequence) value).length() == 0)
+                || (value instanceof Collection && ((Collection<?>) value).isEmpty())
+                || (value instanceof Map && ((Map<?, ?>) value).isEmpty())
+                || (value.getClass().isArray() && java.lang.reflect.Array.getLength(value) == 0);
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private Writer createWriter(Class<?> type) {
+        if (isSimple(type)) {
+            return null;
+        }
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        JavaType javaType = config.constructType(type);
+        BeanDescription description = config.introspect(javaType);
+        if (description.findJsonValueAccessor() != null || description.findAnyGetter() != null) {
+            return null;
+        }
+        Set<String> ignored = config.getDefaultPropertyIgnorals(type, description.getClassInfo()).findIgnoredForSerialization();
+        JsonInclude.Value classInclusion = description.findPropertyInclusion(config.getDefaultPropertyInclusion(type));
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        List<Boolean> includeNulls = new ArrayList<>();
+        List<Boolean> skipEmpty = new ArrayList<>();
+        try {
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                AnnotatedMember accessor = property.getAccessor();
+                if (accessor == null || ignored.contains(property.getName())) {
+                    continue;
+                }
+                if (hasAny(accessor, VALUE_SERIALIZATION_ANNOTATIONS)) {
+                    return null;
+                }
+                JsonInclude.Include inclusion = classInclusion.withOverrides(property.findInclusion()).getValueInclusion();
+                switch (inclusion) {
+                    case ALWAYS:
+                    case USE_DEFAULTS:
+                        includeNulls.add(true);
+                        skipEmpty.add(false);
+                        break;
+                    case NON_NULL:
+                    case NON_ABSENT:
+                        includeNulls.add(false);
+                        skipEmpty.add(false);
+                        break;
+                    case NON_EMPTY:
+                        includeNulls.add(false);
+                        skipEmpty.add(true);
+                        break;
+                    default:
+                        return null;
+                }
+                names.add(property.getName());
+                getters.add(getter(accessor.getMember()));
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+        return new Writer(names, getters, includeNulls, skipEmpty);
+    }
+
+    // Анотації з поля і getter/setter уже злиті в member (разом із mix-in)
+    private static boolean hasAny(AnnotatedMember member, List<Class<? extends Annotation>> annotations) {
+        for (Class<? extends Annotation> annotation : annotations) {
+            if (member.hasAnnotation(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Reader createReader(Class<?> type) {
+        if (isSimple(type)) {
+            return null;
+        }
+        DeserializationConfig config = objectMapper.getDeserializationConfig();
+        JavaType javaType = config.constructType(type);
+        BeanDescription description = config.introspect(javaType);
+        if (description.findAnySetterAccessor() != null) {
+            return null;
+        }
+        JsonIgnoreProperties.Value ignorals = config.getDefaultPropertyIgnorals(type, description.getClassInfo());
+        Set<String> ignored = ignorals.findIgnoredForDeserialization();
+        boolean failOnUnknown = !ignorals.getIgnoreUnknown() && config.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try {
+            Constructor<?> defaultConstructor = type.getDeclaredConstructor();
+            defaultConstructor.setAccessible(true);
+            MethodHandle constructor = lookup.unreflectConstructor(defaultConstructor).asType(CONSTRUCTOR_TYPE);
+            Map<String, Property> properties = new HashMap<>();
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (ignored.contains(property.getName())) {
+                    continue;
+                }
+                AnnotatedMember mutator = property.getMutator();
+                if (mutator == null) {
+                    continue;
+                }
+                if (hasAny(mutator, VALUE_DESERIALIZATION_ANNOTATIONS)) {
+                    return null;
+                }
+                JavaType propertyType = mutator instanceof AnnotatedMethod
+                        ? ((AnnotatedMethod) mutator).getParameterType(0)
+                        : mutator.getType();
+                properties.put(property.getName(), new Property(setter(mutator.getMember()), propertyType));
+            }
+            return new Reader(constructor, properties, failOnUnknown);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private MethodHandle getter(Member member) throws IllegalAccessException {
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            method.setAccessible(true);
+            return lookup.unreflect(method).asType(GETTER_TYPE);
+        }
+        Field field = (Field) member;
+        field.setAccessible(true);
+        return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+    }
+
+    private MethodHandle setter(Member member) throws IllegalAccessException {
+        if (member instanceof Method) {
+            Method method = (Method) member;
+            method.setAccessible(true);
+            return MethodHandles.dropReturn(lookup.unreflect(method)).asType(SETTER_TYPE);
+        }
+        Field field = (Field) member;
+        field.setAccessible(true);
+        return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    }
+
+    private static boolean isSimple(Class<?> type) {
+        return type.isPrimitive() || type.isArray() || type.isEnum() || type.getName().startsWith("java.")
+                || Map.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type);
+    }
+
+    private static final class Writer {
+        private final String[] names;
+        private final MethodHandle[] getters;
+        private final boolean[] includeNulls;
+        private final boolean[] skipEmpty;
+
+        private Writer(List<String> names, List<MethodHandle> getters, List<Boolean> includeNulls, List<Boolean> skipEmpty) {
+            this.names = names.toArray(new String[0]);
+            this.getters = getters.toArray(new MethodHandle[0]);
+            this.includeNulls = new boolean[names.size()];
+            this.skipEmpty = new boolean[names.size()];
+            for (int i = 0; i < names.size(); i++) {
+                this.includeNulls[i] = includeNulls.get(i);
+                this.skipEmpty[i] = skipEmpty.get(i);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final MethodHandle constructor;
+        private final Map<String, Property> properties;
+        private final boolean failOnUnknown;
+
+        private Reader(MethodHandle constructor, Map<String, Property> properties, boolean failOnUnknown) {
+            this.constructor = constructor;
+            this.properties = properties;
+            this.failOnUnknown = failOnUnknown;
+        }
+    }
+
+    private static final class Property {
+        private final MethodHandle setter;
+        private final JavaType javaType;
+        private final Class<?> boxedType;
+        private final boolean primitive;
+        // Для generic-типів (List<Dto> тощо) isInstance нічого не гарантує – їх завжди конвертуємо через Jackson
+        private final boolean direct;
+
+        private Property(MethodHandle setter, JavaType javaType) {
+            this.setter = setter;
+            this.javaType = javaType;
+            this.primitive = javaType.getRawClass().isPrimitive();
+            this.boxedType = primitive ? MethodType.methodType(javaType.getRawClass()).wrap().returnType() : javaType.getRawClass();
+            this.direct = !javaType.isContainerType() && !javaType.hasGenericTypes();
+        }
+    }
+}
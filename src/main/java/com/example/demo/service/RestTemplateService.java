@@ -1,56 +1,315 @@
 package com.example.demo.service;
 
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.example.demo.config.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 public class RestTemplateService {
 
     private final RestTemplate restTemplate;
-    private final HttpHeaders httpHeaders;
     private final ObjectMapper objectMapper;
+    // Circuit breaker, bulkhead, hedging і повтори окремо для кожного хоста (http.client.resilience.*)
+    private final UpstreamResilience resilience;
+    // Окремий обмежений пул для getRequestAsync: не більше maxInFlight одночасних викликів + обмежена черга.
+    // У режимі віртуальних потоків – потік на виклик, а межу тримає семафор inFlight
+    private final ExecutorService asyncExecutor;
+    private final Semaphore inFlight;
+
+    public RestTemplateService(RestTemplate restTemplate,
+                               ObjectMapper objectMapper,
+                               UpstreamResilience resilience,
+                               @Value("${http.client.async.max-in-flight:32}") int maxInFlight,
+                               @Value("${http.client.async.queue-capacity:256}") int queueCapacity,
+                               @Value("${app.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.resilience = resilience;
+        if (virtualThreads) {
+            // Віртуальний потік, заблокований на I/O, нічого не коштує, тому черга не потрібна:
+            // одночасно виконуються maxInFlight + queueCapacity викликів, решта відхиляється одразу
+            this.asyncExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            this.inFlight = new Semaphore(maxInFlight + queueCapacity);
+        } else {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("rest-async-"));
+            executor.allowCoreThreadTimeOut(true);
+            this.asyncExecutor = executor;
+            this.inFlight = null;
+        }
+    }
 
 
     public String getRequest(String url, Map<String, String> paramMap) {
+        return getRequest(url, paramMap, HttpHeaders.EMPTY);
+    }
+
+    // headers – заголовки саме цього upstream (наприклад ключ API); іншим хостам вони не передаються
+    public String getRequest(String url, Map<String, String> paramMap, HttpHeaders headers) {
         try {
-            String response = null;
             String finalUrl = buildUrl(url, paramMap);
-            ResponseEntity<String> responseEntity = restTemplate.exchange(finalUrl, HttpMethod.GET, new HttpEntity<>(httpHeaders), String.class, paramMap);
-            response = responseEntity.getBody();
-            return response;
+            ResponseEntity<String> responseEntity = resilience.call(finalUrl, true, () ->
+                    restTemplate.exchange(URI.create(finalUrl), HttpMethod.GET, new HttpEntity<>(headers), String.class));
+            return responseEntity.getBody();
         } catch (RestClientException e) {
-            throw new RestClientException("REST ERROR ->" + e);
+            throw wrap(e);
+        }
+    }
+
+    /**
+     * Типізований GET: тіло відповіді декодується спільним ObjectMapper прямо з InputStream, без проміжного String.
+     */
+    public <T> T get(String url, Map<String, String> paramMap, Class<T> type) {
+        return get(url, paramMap, HttpHeaders.EMPTY, objectMapper.readerFor(type));
+    }
+
+    public <T> T get(String url, Map<String, String> paramMap, HttpHeaders headers, Class<T> type) {
+        return get(url, paramMap, headers, objectMapper.readerFor(type));
+    }
+
+    public <T> T get(String url, Map<String, String> paramMap, TypeReference<T> type) {
+        return get(url, paramMap, HttpHeaders.EMPTY, objectMapper.readerFor(type));
+    }
+
+    private <T> T get(String url, Map<String, String> paramMap, HttpHeaders headers, ObjectReader reader) {
+        String finalUrl = buildUrl(url, paramMap);
+        try {
+            return resilience.call(finalUrl, true, () -> restTemplate.execute(URI.create(finalUrl), HttpMethod.GET, request -> acceptJson(request, headers), response -> {
+                try (InputStream body = response.getBody()) {
+                    return reader.<T>readValue(body);
+                } catch (JsonProcessingException e) {
+                    throw conversionError(e);
+                }
+            }));
+        } catch (RestClientException e) {
+            throw wrap(e);
+        }
+    }
+
+    /**
+     * Потоковий GET для великих масивів: елементи читаються по одному і передаються в consumer,
+     * тож у пам'яті одночасно лише один елемент. arrayField – ім'я поля з масивом у кореневому об'єкті
+     * (наприклад "data" у відповіді CoinMarketCap) або null, якщо масив і є коренем.
+     * Повертає кількість оброблених елементів. Без hedging; невдалий запит повторюється, лише поки consumer
+     * не отримав жодного елемента (з'єднання, 5xx, таймаут до початку масиву), обрив посеред масиву – без повтору.
+     */
+    public <T> long streamArray(String url, Map<String, String> paramMap, String arrayField,
+                                Class<T> elementType, Consumer<? super T> consumer) {
+        return streamArray(url, paramMap, HttpHeaders.EMPTY, arrayField, elementType, consumer);
+    }
+
+    // headers – заголовки саме цього upstream (наприклад ключ API CoinMarketCap)
+    public <T> long streamArray(String url, Map<String, String> paramMap, HttpHeaders headers, String arrayField,
+                                Class<T> elementType, Consumer<? super T> consumer) {
+        ObjectReader reader = objectMapper.readerFor(elementType);
+        String finalUrl = buildUrl(url, paramMap);
+        AtomicBoolean delivered = new AtomicBoolean();
+        try {
+            Long count = resilience.callRetryingWhile(finalUrl, () -> !delivered.get(), () -> restTemplate.execute(URI.create(finalUrl), HttpMethod.GET, request -> acceptJson(request, headers), response -> {
+                try (InputStream body = response.getBody();
+                     JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                    if (!moveToArray(parser, arrayField)) {
+                        return 0L;
+                    }
+                    long processed = 0;
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                        T element = reader.readValue(parser);
+                        delivered.set(true);
+                        consumer.accept(element);
+                        processed++;
+                    }
+                    return processed;
+                } catch (JsonProcessingException e) {
+                    throw conversionError(e);
+                }
+            }));
+            return count == null ? 0 : count;
+        } catch (RestClientException e) {
+            throw wrap(e);
+        }
+    }
+
+    /**
+     * GET із власним потоковим читачем тіла (наприклад StAX для XML). Тіло не буферизується в String.
+     * Запит може повторюватись або дублюватись hedge-запитом, тож bodyReader не повинен мати побічних ефектів.
+     */
+    public <T> T readBody(String url, Map<String, String> paramMap, BodyReader<T> bodyReader) {
+        String finalUrl = buildUrl(url, paramMap);
+        try {
+            return resilience.call(finalUrl, true, () -> restTemplate.execute(URI.create(finalUrl), HttpMethod.GET,
+                    null, response -> {
+                        try (InputStream body = response.getBody()) {
+                            return bodyReader.read(body);
+                        }
+                    }));
+        } catch (RestClientException e) {
+            throw wrap(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    // Ставить parser на START_ARRAY потрібного масиву; false, якщо такого масиву у відповіді немає
+    private static boolean moveToArray(JsonParser parser, String arrayField) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (arrayField == null) {
+            return token == JsonToken.START_ARRAY;
         }
+        if (token != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (arrayField.equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static void acceptJson(ClientHttpRequest request, HttpHeaders headers) {
+        request.getHeaders().putAll(headers);
+        request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    }
+
+    // UpstreamUnavailableException проходить як є, щоб викликаючий код відрізняв швидку відмову від помилки upstream
+    private static RestClientException wrap(RestClientException e) {
+        if (e instanceof UpstreamUnavailableException) {
+            return e;
+        }
+        return new RestClientException("REST ERROR ->" + e, e);
+    }
+
+    // У повідомленні лише позиція і причина, без тіла відповіді
+    private static IllegalStateException conversionError(JsonProcessingException e) {
+        return new IllegalStateException("Не можливо виконати конвертацію у об'єкт. Помилка: " + e.getOriginalMessage()
+                + " at " + e.getLocation());
+    }
+
+    /**
+     * Неблокуючий варіант getRequest для паралельного fan-out запитів.
+     * Якщо пул і черга заповнені, future одразу завершується з RejectedExecutionException, а не блокує викликаючий потік.
+     */
+    public CompletableFuture<String> getRequestAsync(String url, Map<String, String> paramMap) {
+        return submit(() -> getRequest(url, paramMap));
     }
 
-    private static String buildUrl(String url, Map<String, String> paramMap) {
+    // Типізований варіант getRequestAsync на тому ж обмеженому пулі
+    public <T> CompletableFuture<T> getAsync(String url, Map<String, String> paramMap, Class<T> type) {
+        return getAsync(url, paramMap, HttpHeaders.EMPTY, type);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String url, Map<String, String> paramMap, HttpHeaders headers, Class<T> type) {
+        return submit(() -> get(url, paramMap, headers, type));
+    }
+
+    /**
+     * streamArray на асинхронному пулі з елементами, зібраними в список: у пам'яті лише типізовані елементи,
+     * без дерева всієї відповіді.
+     */
+    public <T> CompletableFuture<List<T>> getArrayAsync(String url, Map<String, String> paramMap, HttpHeaders headers,
+                                                        String arrayField, Class<T> elementType) {
+        return submit(() -> {
+            List<T> elements = new ArrayList<>();
+            streamArray(url, paramMap, headers, arrayField, elementType, elements::add);
+            return elements;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            if (inFlight == null) {
+                return CompletableFuture.supplyAsync(call, asyncExecutor);
+            }
+            if (!inFlight.tryAcquire()) {
+                throw new RejectedExecutionException("Забагато одночасних асинхронних запитів");
+            }
+            try {
+                return CompletableFuture.supplyAsync(call, asyncExecutor).whenComplete((result, error) -> inFlight.release());
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(e);
+            return rejected;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        asyncExecutor.shutdown();
+    }
+
+    /**
+     * Імена і значення параметрів кодуються (URLEncoder), тож &, = чи { у значенні не додадуть параметрів до запиту.
+     * Результат передається в RestTemplate як URI – без розкриття {шаблонів} і повторного кодування.
+     */
+    public static String buildUrl(String url, Map<String, String> paramMap) {
         String finalUrl = url;
         if (!paramMap.isEmpty()) {
-            StringBuilder newUrlBuilder = new StringBuilder(url).append("?");
-            paramMap.forEach((k, v) -> newUrlBuilder.append(k).append("=").append(v).append("&"));
+            StringBuilder newUrlBuilder = new StringBuilder(url).append(url.indexOf('?') < 0 ? "?" : "&");
+            paramMap.forEach((k, v) -> newUrlBuilder.append(encode(k)).append("=").append(encode(v)).append("&"));
             String urlRequest = newUrlBuilder.toString();
             finalUrl = urlRequest.substring(0, urlRequest.length() - 1);
         }
         return finalUrl;
     }
 
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
 
-    public <T> Object jsonToObjectConverter(String json, Class<T> type) {
+    public <T> T jsonToObjectConverter(String json, Class<T> type) {
         try {
             return objectMapper.readValue(json, type);
-        } catch (Exception e) {
-            throw new IllegalStateException("Не можливо виконати конвертацію у об'єкт. " + json + " Помилка: " + e);
+        } catch (JsonProcessingException e) {
+            throw conversionError(e);
         }
     }
 
@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import com.example.demo.dao.entity.Student;
+import com.example.demo.dto.BatchIngestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетне завантаження студентів.
+ * До students.batch.copy-threshold рядків – JDBC batch insert (з reWriteBatchedInserts це один multi-row INSERT на пачку).
+ * Більше – перемикаємось на COPY ... FROM STDIN і дописуємо рядки в потік по мірі читання запиту.
+ */
+@Slf4j
+@Service
+public class StudentBatchService {
+
+    private static final String INSERT_SQL =
+            "insert into public.students (first_name, last_name, class_number) values (?, ?, ?)";
+    private static final String COPY_SQL =
+            "COPY public.students (first_name, last_name, class_number) FROM STDIN WITH (FORMAT csv)";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int copyThreshold;
+    private final int maxReportedErrors;
+
+    public StudentBatchService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               DataSource dataSource,
+                               ObjectMapper objectMapper,
+                               @Value("${students.batch.size:500}") int batchSize,
+                               @Value("${students.batch.copy-threshold:5000}") int copyThreshold,
+                               @Value("${students.batch.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.copyThreshold = copyThreshold;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // inserted отримує лише рядки, які закомічені: пачку – після її транзакції, COPY – після endCopy
+    public BatchIngestResult ingest(InputStream body, MediaType contentType, StudentStatistics.Delta inserted) throws IOException {
+        BatchIngestResult result = new BatchIngestResult();
+        List<Student> buffered = new ArrayList<>();
+        List<Long> bufferedRows = new ArrayList<>();
+        try (StudentRowReader reader = StudentRowReader.open(body, contentType, objectMapper)) {
+            while (reader.next()) {
+                result.setReceived(reader.rowNumber());
+                if (reader.error() != null) {
+                    addError(result, reader.rowNumber(), reader.error());
+                    continue;
+                }
+                buffered.add(reader.student());
+                bufferedRows.add(reader.rowNumber());
+                if (buffered.size() >= copyThreshold) {
+                    copy(buffered, reader, result, inserted);
+                    return result;
+                }
+            }
+        }
+        batchInsert(buffered, bufferedRows, result, inserted);
+        return result;
+    }
+
+    private void batchInsert(List<Student> students, List<Long> rows, BatchIngestResult result, StudentStatistics.Delta inserted) {
+        result.setMode("batch");
+        for (int from = 0; from < students.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, students.size());
+            List<Student> chunk = students.subList(from, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(),
+                        (ps, student) -> {
+                            ps.setString(1, student.getFirstName());
+                            ps.setString(2, student.getLastName());
+                            ps.setInt(3, student.getClassNumber());
+                        }));
+                result.setInserted(result.getInserted() + chunk.size());
+                chunk.forEach(inserted::add);
+            } catch (DataAccessException e) {
+                // Пачка відкотилась – вставляємо її по одному рядку, щоб знайти, які саме рядки погані
+                for (int i = from; i < to; i++) {
+                    Student student = students.get(i);
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, student.getFirstName(), student.getLastName(), student.getClassNumber());
+                        result.setInserted(result.getInserted() + 1);
+                        inserted.add(student);
+                    } catch (DataAccessException rowError) {
+                        addError(result, rows.get(i), rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void copy(List<Student> buffered, StudentRowReader reader, BatchIngestResult result,
+                      StudentStatistics.Delta inserted) throws IOException {
+        result.setMode("copy");
+        StudentStatistics.Delta copied = new StudentStatistics.Delta();
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                ByteArrayOutputStream chunk = new ByteArrayOutputStream(COPY_BUFFER_SIZE + 1024);
+                for (Student student : buffered) {
+                    appendCsv(chunk, student);
+                    copied.add(student);
+                }
+                buffered.clear();
+                while (reader.next()) {
+                    result.setReceived(reader.rowNumber());
+                    if (reader.error() != null) {
+                        addError(result, reader.rowNumber(), reader.error());
+                        continue;
+                    }
+                    appendCsv(chunk, reader.student());
+                    copied.add(reader.student());
+                    if (chunk.size() >= COPY_BUFFER_SIZE) {
+                        copyIn.writeToCopy(chunk.toByteArray(), 0, chunk.size());
+                        chunk.reset();
+                    }
+                }
+                if (chunk.size() > 0) {
+                    copyIn.writeToCopy(chunk.toByteArray(), 0, chunk.size());
+                }
+                result.setInserted(copyIn.endCopy());
+                inserted.addAll(copied);
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            // COPY атомарний: при помилці бази не вставлено жодного рядка
+            log.warn("COPY студентів не вдався: {}", e.getMessage());
+            result.setInserted(0);
+            addError(result, 0, e.getMessage());
+        }
+    }
+
+    private static void appendCsv(ByteArrayOutputStream out, Student student) {
+        StringBuilder line = new StringBuilder(64);
+        appendQuoted(line, student.getFirstName()).append(',');
+        appendQuoted(line, student.getLastName()).append(',');
+        line.append(student.getClassNumber()).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private void addError(BatchIngestResult result, long row, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BatchIngestResult.RowError(row, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+}
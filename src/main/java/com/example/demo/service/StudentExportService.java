@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Повний знімок таблиці students для звітів через COPY (SELECT ...) TO STDOUT.
+ * Рядки формує сам PostgreSQL (CSV або JSON на рядок), застосунок лише перекладає байти з copy-потоку драйвера
+ * у відповідь буферами фіксованого розміру – без сутностей, без Jackson і без накопичення таблиці в пам'яті.
+ * Драйвер віддає кожен рядок окремим коротким byte[], решта – один буфер на весь експорт.
+ */
+@Slf4j
+@Service
+public class StudentExportService {
+
+    public enum Format {
+        // Заголовок – імена колонок таблиці (як у CSV для POST /students/batch, плюс id), екранування робить PostgreSQL
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv",
+                "COPY (SELECT id, first_name, last_name, class_number FROM public.students ORDER BY id)"
+                        + " TO STDOUT WITH (FORMAT csv, HEADER true)"),
+        // Один JSON-об'єкт на рядок. FORMAT csv з QUOTE/DELIMITER, яких не буває в JSON-тексті (керівні символи
+        // json_build_object екранує), – рядок виходить як є; у FORMAT text PostgreSQL подвоїв би кожен зворотний слеш
+        NDJSON(StudentRowReader.NDJSON, "ndjson",
+                "COPY (SELECT json_build_object('id', id, 'firstName', first_name, 'lastName', last_name,"
+                        + " 'classNumber', class_number)::text FROM public.students ORDER BY id)"
+                        + " TO STDOUT WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')");
+
+        private final MediaType mediaType;
+        private final String extension;
+        private final String sql;
+
+        Format(MediaType mediaType, String extension, String sql) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+            this.sql = sql;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        // null, якщо формат невідомий
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equals(value.trim().toUpperCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int bufferSize;
+
+    public StudentExportService(DataSource dataSource,
+                                @Value("${students.export.buffer-size:65536}") int bufferSize) {
+        this.dataSource = dataSource;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Пише всю таблицю в out. readOnly-транзакція: з увімкненою replica експорт іде з неї і не навантажує primary.
+     * Якщо клієнт обірвав з'єднання, COPY скасовується, і з'єднання повертається в пул чистим.
+     * Повертає кількість рядків.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out, boolean gzip) throws IOException {
+        long started = System.nanoTime();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyOut copyOut = null;
+        try {
+            copyOut = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(format.sql);
+            OutputStream target = gzip ? new GZIPOutputStream(out, bufferSize) : out;
+            byte[] buffer = new byte[bufferSize];
+            int position = 0;
+            long bytes = 0;
+            byte[] row;
+            while ((row = copyOut.readFromCopy()) != null) {
+                if (position + row.length > buffer.length) {
+                    target.write(buffer, 0, position);
+                    bytes += position;
+                    position = 0;
+                }
+                // Рядок, більший за буфер, пишемо напряму
+                if (row.length > buffer.length) {
+                    target.write(row);
+                    bytes += row.length;
+                } else {
+                    System.arraycopy(row, 0, buffer, position, row.length);
+                    position += row.length;
+                }
+            }
+            target.write(buffer, 0, position);
+            bytes += position;
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            long rows = copyOut.getHandledRowCount();
+            log.info("Експорт студентів ({}{}): {} рядків, {} байт за {} мс", format.extension, gzip ? ", gzip" : "",
+                    rows, bytes, (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        } catch (SQLException e) {
+            throw new IOException("COPY студентів не вдався: " + e.getMessage(), e);
+        } finally {
+            cancel(copyOut);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static void cancel(CopyOut copyOut) {
+        if (copyOut != null && copyOut.isActive()) {
+            try {
+                copyOut.cancelCopy();
+            } catch (SQLException e) {
+                log.warn("Не вдалося скасувати COPY студентів: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Версійований кеш серіалізованого списку студентів для GET /students.
+ * Версія збільшується після кожного запису через StudentController, ETag = epoch процесу + версія,
+ * тому після рестарту або на іншому вузлі старий ETag не дасть хибного 304.
+ * Версія локальна для процесу: записи в обхід StudentController кеш не інвалідують.
+ */
+@Component
+public class StudentReadCache {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+    private final int maxBytes;
+
+    public StudentReadCache(@Value("${students.cache.max-bytes:4194304}") int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public String etag(long version) {
+        return "\"students-" + epoch + "-" + version + "\"";
+    }
+
+    // Викликати після коміту запису
+    public void bump() {
+        version.incrementAndGet();
+        entry.set(null);
+    }
+
+    // null, якщо для цієї версії байтів ще немає
+    public byte[] get(long version) {
+        Entry current = entry.get();
+        return current != null && current.version == version ? current.bytes : null;
+    }
+
+    /**
+     * Обгортає потік відповіді: усе, що пишеться клієнту, паралельно копіюється (до students.cache.max-bytes).
+     * Після успішного запису publish() кладе копію в кеш, якщо версія за цей час не змінилась.
+     */
+    public Capture capture(OutputStream out, long version) {
+        return new Capture(out, version);
+    }
+
+    private void store(long version, byte[] bytes) {
+        Entry next = new Entry(version, bytes);
+        entry.accumulateAndGet(next, (current, candidate) ->
+                this.version.get() == candidate.version ? candidate : current);
+    }
+
+    private static class Entry {
+        private final long version;
+        private final byte[] bytes;
+
+        private Entry(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+
+    public class Capture extends FilterOutputStream {
+
+        private final long version;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream(8192);
+        private boolean closed;
+
+        private Capture(OutputStream out, long version) {
+            super(out);
+            this.version = version;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkSize();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkSize();
+            }
+        }
+
+        private void checkSize() {
+            if (copy.size() > maxBytes) {
+                copy = null; // список завеликий для кешу – далі лише пишемо клієнту
+            }
+        }
+
+        // Викликати лише після того, як увесь список успішно записано
+        public void publish() {
+            if (copy != null) {
+                store(version, copy.toByteArray());
+                copy = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                super.close();
+            }
+        }
+    }
+}
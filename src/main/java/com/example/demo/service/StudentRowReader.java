@@ -0,0 +1,247 @@
+package com.example.demo.service;
+
+import com.example.demo.dao.entity.Student;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоково читає студентів із тіла запиту: JSON-масив, JSON lines або CSV (first_name,last_name,class_number).
+ * Тримає в пам'яті лише поточний рядок. Помилка розбору одного рядка не зупиняє читання решти.
+ */
+abstract class StudentRowReader implements Closeable {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType JSON_LINES = MediaType.parseMediaType("application/jsonl");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private long rowNumber;
+    private Student student;
+    private String error;
+
+    static StudentRowReader open(InputStream in, MediaType contentType, ObjectMapper objectMapper) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(Student.class);
+        if (contentType != null && (NDJSON.isCompatibleWith(contentType) || JSON_LINES.isCompatibleWith(contentType))) {
+            return new JsonLines(in, reader);
+        }
+        if (contentType != null && CSV.isCompatibleWith(contentType)) {
+            return new Csv(in);
+        }
+        return new JsonArray(in, objectMapper, reader);
+    }
+
+    /**
+     * Переходить до наступного рядка. Після true рівно одне з student()/error() не null.
+     */
+    final boolean next() throws IOException {
+        student = null;
+        error = null;
+        if (!advance()) {
+            return false;
+        }
+        rowNumber++;
+        if (student != null) {
+            error = validate(student);
+            if (error != null) {
+                student = null;
+            }
+        }
+        return true;
+    }
+
+    long rowNumber() {
+        return rowNumber;
+    }
+
+    Student student() {
+        return student;
+    }
+
+    String error() {
+        return error;
+    }
+
+    protected abstract boolean advance() throws IOException;
+
+    protected void accept(Student student) {
+        this.student = student;
+    }
+
+    protected void reject(String error) {
+        this.error = error;
+    }
+
+    private static String validate(Student student) {
+        if (!StringUtils.hasText(student.getFirstName())) {
+            return "firstName порожній";
+        }
+        if (!StringUtils.hasText(student.getLastName())) {
+            return "lastName порожній";
+        }
+        return null;
+    }
+
+    private static class JsonArray extends StudentRowReader {
+
+        private final JsonParser parser;
+        private final ObjectReader reader;
+        private boolean started;
+
+        private JsonArray(InputStream in, ObjectMapper objectMapper, ObjectReader reader) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+            this.reader = reader;
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Очікується JSON-масив студентів");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                reject("Очікується об'єкт, отримано " + token);
+                return true;
+            }
+            // Синтаксична помилка ламає весь потік, помилка маппінгу – лише цей елемент
+            JsonNode node = parser.readValueAsTree();
+            try {
+                accept(reader.readValue(node));
+            } catch (JsonProcessingException e) {
+                reject(e.getOriginalMessage());
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static class JsonLines extends StudentRowReader {
+
+        private final BufferedReader lines;
+        private final ObjectReader reader;
+
+        private JsonLines(InputStream in, ObjectReader reader) {
+            this.lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.reader = reader;
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return false;
+                }
+            } while (line.trim().isEmpty());
+            try {
+                accept(reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                reject(e.getOriginalMessage());
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+    }
+
+    private static class Csv extends StudentRowReader {
+
+        private final BufferedReader lines;
+        private boolean headerChecked;
+
+        private Csv(InputStream in) {
+            this.lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        protected boolean advance() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return false;
+                }
+                if (!headerChecked) {
+                    headerChecked = true;
+                    String first = line.trim().toLowerCase();
+                    if (first.startsWith("first_name") || first.startsWith("firstname") || first.startsWith("\"first")) {
+                        line = "";
+                    }
+                }
+            } while (line.trim().isEmpty());
+            List<String> fields = split(line);
+            if (fields.size() != 3) {
+                reject("Очікується 3 колонки, отримано " + fields.size());
+                return true;
+            }
+            try {
+                accept(new Student(null, fields.get(0).trim(), fields.get(1).trim(), Integer.parseInt(fields.get(2).trim())));
+            } catch (NumberFormatException e) {
+                reject("classNumber не є числом: " + fields.get(2));
+            }
+            return true;
+        }
+
+        // Мінімальний розбір CSV: коми, поля в лапках, "" всередині лапок
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReadWriteRoutingDataSource;
+import com.example.demo.dao.StudentRepository;
+import com.example.demo.dao.entity.Student;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Індекс пошуку студентів за префіксом імені/прізвища в пам'яті.
+ * Терми (слова firstName і lastName у нижньому регістрі) лежать у відсортованій ConcurrentSkipListMap,
+ * префіксний запит – це діапазон subMap. Для кожного терма – незмінний список (classNumber, id),
+ * відсортований за класом, тож фільтр за класом – бінарний пошук. Читання без локів і без БД.
+ * Будується при старті потоковим читанням StudentRepository; StudentController оновлює його після кожного запису
+ * (put для одного студента, catchUp за id для пакетного завантаження). Повна перебудова за розкладом – страховка
+ * від записів в обхід застосунку. Перебудова і catchUp читають primary: replica може ще не мати щойно записаних рядків,
+ * а put, що прийшли під час перебудови, переносяться в новий індекс.
+ */
+@Slf4j
+@Service
+public class StudentSearchIndex {
+
+    private static final int CATCH_UP_PAGE = 1000;
+
+    private final StudentRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    // Є лише з app.datasource.replica.url
+    private final ReadWriteRoutingDataSource readWriteRouting;
+
+    private volatile Index index = new Index();
+    // Поки йде перебудова – студенти з put, щоб не втратити їх при заміні індексу знімком, прочитаним раніше
+    private volatile Map<Long, Student> putDuringRebuild;
+    private volatile Instant builtAt = Instant.EPOCH;
+
+    public StudentSearchIndex(StudentRepository repository, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readWriteRouting = readWriteRouting.getIfAvailable();
+    }
+
+    @Scheduled(initialDelayString = "${students.index.initial-delay:0}",
+            fixedDelayString = "${students.index.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        Map<Long, Student> putMeanwhile = new ConcurrentHashMap<>();
+        putDuringRebuild = putMeanwhile;
+        try {
+            long watermark = maxId();
+            Index next = new Index();
+            onPrimary(() -> readOnlyTransaction.execute(status -> {
+                try (Stream<Student> stream = repository.streamAllByOrderByIdAsc()) {
+                    stream.forEach(student -> {
+                        entityManager.detach(student);
+                        next.put(student);
+                    });
+                }
+                return null;
+            }));
+            index = next;
+            putDuringRebuild = null;
+            // put, що прийшли після початку читання, новіші за знімок; ті, що прийдуть далі, йдуть уже в новий індекс
+            putMeanwhile.values().forEach(next::put);
+            builtAt = Instant.now();
+            // Записи, що пройшли в старий індекс під час перебудови
+            catchUp(watermark);
+            log.info("Індекс пошуку студентів побудовано: {}", next.byId.size());
+        } catch (RuntimeException e) {
+            putDuringRebuild = null;
+            log.warn("Не вдалося перебудувати індекс студентів, лишаємо індекс від {}: {}", builtAt, e.toString());
+        }
+    }
+
+    // Після збереження одного студента (id вже призначено). Повертає попередню версію з індексу, якщо була
+    public Student put(Student student) {
+        if (student.getId() == null) {
+            return null;
+        }
+        Map<Long, Student> putMeanwhile = putDuringRebuild;
+        if (putMeanwhile != null) {
+            putMeanwhile.put(student.getId(), student);
+        }
+        return index.put(student);
+    }
+
+    /**
+     * Дочитує з БД студентів з id > afterId (id – IDENTITY, тож нові рядки завжди мають більший id).
+     * Для пакетного завантаження, де id вставлених рядків невідомі. Повертає кількість дочитаних.
+     */
+    public int catchUp(long afterId) {
+        int loaded = 0;
+        long cursor = afterId;
+        List<Student> page;
+        do {
+            long from = cursor;
+            page = onPrimary(() -> repository.findByIdGreaterThanOrderByIdAsc(from, PageRequest.of(0, CATCH_UP_PAGE)));
+            for (Student student : page) {
+                index.put(student);
+                cursor = student.getId();
+            }
+            loaded += page.size();
+        } while (page.size() == CATCH_UP_PAGE);
+        return loaded;
+    }
+
+    private <T> T onPrimary(Supplier<T> action) {
+        return readWriteRouting == null ? action.get() : readWriteRouting.onPrimary(action);
+    }
+
+    public long maxId() {
+        return index.maxId.get();
+    }
+
+    public int size() {
+        return index.byId.size();
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    /**
+     * Студенти, у яких кожне слово запиту є префіксом якогось слова імені чи прізвища.
+     * classNumber = null – без фільтра за класом. Порядок: за алфавітом терма, далі за id.
+     */
+    public List<Student> search(String query, Integer classNumber, int limit) {
+        String[] words = tokenize(query);
+        if (words.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Найдовше слово зазвичай найвибірковіше – по ньому беремо кандидатів, решту перевіряємо
+        String driver = words[0];
+        for (String word : words) {
+            if (word.length() > driver.length()) {
+                driver = word;
+            }
+        }
+        Index current = index;
+        Map<Long, Student> found = new LinkedHashMap<>();
+        for (Postings postings : current.terms.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+            int from = classNumber == null ? 0 : postings.lowerBound(classNumber);
+            int to = classNumber == null ? postings.ids.length : postings.lowerBound(classNumber + 1);
+            for (int i = from; i < to; i++) {
+                long id = postings.ids[i];
+                if (found.containsKey(id)) {
+                    continue;
+                }
+                Student student = current.byId.get(id);
+                if (student != null && (words.length == 1 || matchesAll(student, words))) {
+                    found.put(id, student);
+                    if (found.size() >= limit) {
+                        return new ArrayList<>(found.values());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    private static boolean matchesAll(Student student, String[] words) {
+        String[] tokens = tokens(student);
+        for (String word : words) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(word)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] tokens(Student student) {
+        String[] first = tokenize(student.getFirstName());
+        String[] last = tokenize(student.getLastName());
+        String[] all = Arrays.copyOf(first, first.length + last.length);
+        System.arraycopy(last, 0, all, first.length, last.length);
+        return all;
+    }
+
+    // Слова в нижньому регістрі; дефіс розділяє подвійні прізвища
+    private static String[] tokenize(String value) {
+        if (value == null) {
+            return new String[0];
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? new String[0] : normalized.split("[\\s\\-]+");
+    }
+
+    private static final class Index {
+        private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, Student> byId = new ConcurrentHashMap<>();
+        private final AtomicLong maxId = new AtomicLong();
+
+        private Student put(Student student) {
+            long id = student.getId();
+            Student previous = byId.put(id, student);
+            if (previous != null) {
+                for (String term : tokens(previous)) {
+                    terms.computeIfPresent(term, (key, postings) -> postings.without(previous.getClassNumber(), id));
+                }
+            }
+            for (String term : tokens(student)) {
+                terms.merge(term, Postings.of(student.getClassNumber(), id),
+                        (postings, added) -> postings.with(student.getClassNumber(), id));
+            }
+            maxId.accumulateAndGet(id, Math::max);
+            return previous;
+        }
+    }
+
+    // Незмінний список (classNumber, id), відсортований за класом, потім за id; зміни – копією
+    private static final class Postings {
+        private final int[] classes;
+        private final long[] ids;
+
+        private Postings(int[] classes, long[] ids) {
+            this.classes = classes;
+            this.ids = ids;
+        }
+
+        private static Postings of(int classNumber, long id) {
+            return new Postings(new int[]{classNumber}, new long[]{id});
+        }
+
+        private Postings with(int classNumber, long id) {
+            int position = position(classNumber, id);
+            if (position < ids.length && classes[position] == classNumber && ids[position] == id) {
+                return this;
+            }
+            int[] nextClasses = new int[classes.length + 1];
+            long[] nextIds = new long[ids.length + 1];
+            System.arraycopy(classes, 0, nextClasses, 0, position);
+            System.arraycopy(ids, 0, nextIds, 0, position);
+            nextClasses[position] = classNumber;
+            nextIds[position] = id;
+            System.arraycopy(classes, position, nextClasses, position + 1, classes.length - position);
+            System.arraycopy(ids, position, nextIds, position + 1, ids.length - position);
+            return new Postings(nextClasses, nextIds);
+        }
+
+        // null, якщо список спорожнів – тоді терм видаляється з індексу
+        private Postings without(int classNumber, long id) {
+            int position = position(classNumber, id);
+            if (position >= ids.length || classes[position] != classNumber || ids[position] != id) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            int[] nextClasses = new int[classes.length - 1];
+            long[] nextIds = new long[ids.length - 1];
+            System.arraycopy(classes, 0, nextClasses, 0, position);
+            System.arraycopy(ids, 0, nextIds, 0, position);
+            System.arraycopy(classes, position + 1, nextClasses, position, classes.length - position - 1);
+            System.arraycopy(ids, position + 1, nextIds, position, ids.length - position - 1);
+            return new Postings(nextClasses, nextIds);
+        }
+
+        // Перша позиція з класом >= classNumber
+        private int lowerBound(int classNumber) {
+            int low = 0;
+            int high = classes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (classes[mid] < classNumber) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Перша позиція з (клас, id) >= (classNumber, id)
+        private int position(int classNumber, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (classes[mid] < classNumber || (classes[mid] == classNumber && ids[mid] < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReadWriteRoutingDataSource;
+import com.example.demo.dao.StudentClassAggregate;
+import com.example.demo.dao.StudentRepository;
+import com.example.demo.dao.entity.Student;
+import com.example.demo.dto.StudentStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика студентів по класах: кількість, середні довжини імені/прізвища і розподіл перших літер прізвищ.
+ * Лічильники – LongAdder і AtomicLongArray на клас, тож запис із багатьох потоків не конкурує за один лічильник,
+ * а читання не звертається до БД. Початкові значення дає один агрегатний запит, далі StudentController
+ * оновлює лічильники після кожного запису. Періодична звірка з тим самим запитом знаходить розбіжності
+ * (записи в обхід застосунку, гонки зі стартовим заповненням) і виправляє їх.
+ */
+@Slf4j
+@Service
+public class StudentStatistics {
+
+    private static final String ALPHABET = "АБВГҐДЕЄЖЗИІЇЙКЛМНОПРСТУФХЦЧШЩЬЮЯABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int OTHER = ALPHABET.length();
+    private static final int BUCKETS = OTHER + 1;
+    // Номер кошика для символів до U+04FF (латиниця і кирилиця); решта – OTHER
+    private static final byte[] BUCKET_BY_CHAR = new byte[0x500];
+
+    static {
+        java.util.Arrays.fill(BUCKET_BY_CHAR, (byte) OTHER);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            char letter = ALPHABET.charAt(i);
+            BUCKET_BY_CHAR[letter] = (byte) i;
+            BUCKET_BY_CHAR[Character.toLowerCase(letter)] = (byte) i;
+        }
+    }
+
+    private final StudentRepository repository;
+    // Є лише з replica; агрегат для звірки читається з primary, щоб лаг replica не видавався за розбіжність
+    private final ReadWriteRoutingDataSource readWriteRouting;
+    private final ConcurrentHashMap<Integer, ClassCounters> classes = new ConcurrentHashMap<>();
+    private final Counter driftCounter;
+    private final LongAdder driftCorrections = new LongAdder();
+
+    private volatile boolean seeded;
+    private volatile Instant reconciledAt;
+
+    public StudentStatistics(StudentRepository repository, MeterRegistry meterRegistry,
+                             ObjectProvider<ReadWriteRoutingDataSource> readWriteRouting) {
+        this.repository = repository;
+        this.readWriteRouting = readWriteRouting.getIfAvailable();
+        this.driftCounter = meterRegistry.counter("students.stats.drift");
+    }
+
+    // Новий студент; для оновлення наявного – replace
+    public void record(Student student) {
+        apply(student, 1);
+    }
+
+    public void replace(Student previous, Student current) {
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(current, 1);
+    }
+
+    // Студенти, вставлені пакетним завантаженням; Delta заповнюється лише рядками, які справді закомічені
+    public void record(Delta delta) {
+        delta.classes.forEach((classNumber, added) -> merge(counters(classNumber), added));
+    }
+
+    public long total() {
+        long total = 0;
+        for (ClassCounters counters : classes.values()) {
+            total += counters.students.sum();
+        }
+        return total;
+    }
+
+    // Клас -> кількість студентів, за зростанням номера класу
+    public Map<Integer, Long> countsByClass() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        classes.forEach((classNumber, counters) -> {
+            long students = counters.students.sum();
+            if (students > 0) {
+                counts.put(classNumber, students);
+            }
+        });
+        return counts;
+    }
+
+    public StudentStats snapshot() {
+        StudentStats stats = new StudentStats();
+        for (Map.Entry<Integer, ClassCounters> entry : new TreeMap<>(classes).entrySet()) {
+            ClassCounters counters = entry.getValue();
+            long students = counters.students.sum();
+            if (students <= 0) {
+                continue;
+            }
+            StudentStats.ClassStats classStats = new StudentStats.ClassStats();
+            classStats.setClassNumber(entry.getKey());
+            classStats.setStudents(students);
+            classStats.setAvgFirstNameLength((double) counters.firstNameChars.sum() / students);
+            classStats.setAvgLastNameLength((double) counters.lastNameChars.sum() / students);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long count = counters.initials.get(bucket);
+                if (count > 0) {
+                    classStats.getLastNameInitials().put(bucket == OTHER ? "?" : String.valueOf(ALPHABET.charAt(bucket)), count);
+                }
+            }
+            stats.getClasses().add(classStats);
+            stats.setTotal(stats.getTotal() + students);
+        }
+        stats.setReconciledAt(reconciledAt);
+        stats.setDriftCorrections(driftCorrections.sum());
+        return stats;
+    }
+
+    /**
+     * Перший запуск заповнює лічильники, наступні – звіряють їх з БД і додають різницю.
+     * Запис, що пройшов між запитом і звіркою, може дати хибну розбіжність – наступна звірка її поверне.
+     */
+    @Scheduled(initialDelayString = "${students.stats.initial-delay:0}",
+            fixedDelayString = "${students.stats.reconcile-interval:600000}")
+    public void reconcile() {
+        try {
+            Map<Integer, long[]> expected = new HashMap<>();
+            List<StudentClassAggregate> rows = readWriteRouting == null
+                    ? repository.aggregateByClassAndInitial()
+                    : readWriteRouting.onPrimary(repository::aggregateByClassAndInitial);
+            for (StudentClassAggregate row : rows) {
+                long[] values = expected.computeIfAbsent(row.getClassNumber(), key -> new long[3 + BUCKETS]);
+                values[0] += row.getStudents();
+                values[1] += row.getFirstNameChars();
+                values[2] += row.getLastNameChars();
+                values[3 + bucket(row.getInitial())] += row.getStudents();
+            }
+            TreeSet<Integer> classNumbers = new TreeSet<>(expected.keySet());
+            classNumbers.addAll(classes.keySet());
+            boolean drift = false;
+            for (Integer classNumber : classNumbers) {
+                long[] values = expected.getOrDefault(classNumber, new long[3 + BUCKETS]);
+                ClassCounters counters = counters(classNumber);
+                long studentDiff = values[0] - counters.students.sum();
+                if (studentDiff != 0 && seeded) {
+                    log.warn("Розбіжність статистики для класу {}: {} за лічильниками, {} у БД",
+                            classNumber, values[0] - studentDiff, values[0]);
+                }
+                drift |= correct(counters.students, values[0]);
+                drift |= correct(counters.firstNameChars, values[1]);
+                drift |= correct(counters.lastNameChars, values[2]);
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    long diff = values[3 + bucket] - counters.initials.get(bucket);
+                    if (diff != 0) {
+                        counters.initials.addAndGet(bucket, diff);
+                        drift = true;
+                    }
+                }
+            }
+            if (drift && seeded) {
+                driftCorrections.increment();
+                driftCounter.increment();
+            }
+            if (!seeded) {
+                log.info("Статистику студентів заповнено: {} класів", expected.size());
+            }
+            seeded = true;
+            reconciledAt = Instant.now();
+        } catch (RuntimeException e) {
+            log.warn("Не вдалося звірити статистику студентів: {}", e.toString());
+        }
+    }
+
+    private static boolean correct(LongAdder counter, long expected) {
+        long diff = expected - counter.sum();
+        if (diff == 0) {
+            return false;
+        }
+        counter.add(diff);
+        return true;
+    }
+
+    private void apply(Student student, int sign) {
+        apply(counters(student.getClassNumber()), student, sign);
+    }
+
+    private static void apply(ClassCounters counters, Student student, int sign) {
+        counters.students.add(sign);
+        counters.firstNameChars.add(sign * length(student.getFirstName()));
+        counters.lastNameChars.add(sign * length(student.getLastName()));
+        counters.initials.addAndGet(bucket(student.getLastName()), sign);
+    }
+
+    private static void merge(ClassCounters counters, ClassCounters added) {
+        counters.students.add(added.students.sum());
+        counters.firstNameChars.add(added.firstNameChars.sum());
+        counters.lastNameChars.add(added.lastNameChars.sum());
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long count = added.initials.get(bucket);
+            if (count != 0) {
+                counters.initials.addAndGet(bucket, count);
+            }
+        }
+    }
+
+    private ClassCounters counters(int classNumber) {
+        return classes.computeIfAbsent(classNumber, key -> new ClassCounters());
+    }
+
+    // Довжина в символах, як LENGTH у PostgreSQL
+    private static long length(String value) {
+        return value == null ? 0 : value.codePointCount(0, value.length());
+    }
+
+    private static int bucket(String name) {
+        if (name == null || name.isEmpty()) {
+            return OTHER;
+        }
+        char first = name.charAt(0);
+        return first < BUCKET_BY_CHAR.length ? BUCKET_BY_CHAR[first] : OTHER;
+    }
+
+    /**
+     * Лічильники по класах для одного пакетного завантаження: пам'ять не залежить від кількості рядків,
+     * тож підходить і для COPY, де самі рядки не зберігаються. У загальну статистику – через record(Delta).
+     */
+    public static final class Delta {
+        private final Map<Integer, ClassCounters> classes = new HashMap<>();
+
+        public void add(Student student) {
+            apply(classes.computeIfAbsent(student.getClassNumber(), key -> new ClassCounters()), student, 1);
+        }
+
+        public void addAll(Delta other) {
+            other.classes.forEach((classNumber, added) ->
+                    merge(classes.computeIfAbsent(classNumber, key -> new ClassCounters()), added));
+        }
+    }
+
+    private static final class ClassCounters {
+        private final LongAdder students = new LongAdder();
+        private final LongAdder firstNameChars = new LongAdder();
+        private final LongAdder lastNameChars = new LongAdder();
+        private final AtomicLongArray initials = new AtomicLongArray(BUCKETS);
+    }
+}
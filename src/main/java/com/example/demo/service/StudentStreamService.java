@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.dao.StudentRepository;
+import com.example.demo.dao.entity.Student;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class StudentStreamService {
+
+    private final StudentRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Пише всіх студентів у out як JSON-масив по мірі читання з JDBC-курсора.
+     * Кожна сутність від'єднується від persistence context одразу після запису, тому пам'ять не росте з розміром таблиці.
+     */
+    @Transactional(readOnly = true)
+    public void writeAllAsJsonArray(OutputStream out) throws IOException {
+        // Без flush після кожного елемента – буфер відправляється контейнером, а не по одному рядку
+        ObjectWriter writer = objectMapper.writerFor(Student.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<Student> students = repository.streamAllByOrderByIdAsc()) {
+            generator.writeStartArray();
+            students.forEach(student -> {
+                try {
+                    writer.writeValue(generator, student);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(student);
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
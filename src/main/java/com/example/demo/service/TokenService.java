@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.config.JwtUtil;
+import com.example.demo.config.TokenRevocationStore;
+import com.example.demo.dto.TokenPair;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Оновлення і відкликання токенів. Refresh-токени одноразові: при оновленні старий відкликається.
+ * Тут лише холодні шляхи, тому відкликання перевіряється точно в primary, а не Bloom-фільтром.
+ */
+@Slf4j
+@Service
+public class TokenService {
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationStore revocationStore;
+    private final UserDetailsService userDetailsService;
+
+    public TokenService(JwtUtil jwtUtil, TokenRevocationStore revocationStore, UserDetailsService userDetailsService) {
+        this.jwtUtil = jwtUtil;
+        this.revocationStore = revocationStore;
+        this.userDetailsService = userDetailsService;
+    }
+
+    public TokenPair refresh(String refreshToken) {
+        Claims claims = validClaims(refreshToken);
+        if (claims == null || !jwtUtil.isRefreshToken(claims)) {
+            throw new BadCredentialsException("Недійсний refresh-токен");
+        }
+        // Нова пара видається лише тому, чий INSERT відкликання вставив рядок: з двох паралельних оновлень
+        // одним refresh-токеном (чи повторного пред'явлення вкраденого) виграє одне, друге вважається повторним
+        // використанням, і всі токени користувача відкликаються
+        if (!revoke(claims)) {
+            log.warn("Повторне використання refresh-токена {} користувача {} – відкликаємо всі його токени",
+                    claims.getId(), claims.getSubject());
+            revocationStore.revokeAllFor(claims.getSubject());
+            throw new BadCredentialsException("Refresh-токен уже використано");
+        }
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Користувача не знайдено");
+        }
+        return jwtUtil.issueTokens(user.getUsername(), roles(user));
+    }
+
+    /**
+     * Вихід: відкликає access-токен і, якщо передано, refresh-токен того ж користувача.
+     * Повертає false, якщо жоден із токенів не дійсний.
+     */
+    public boolean logout(String accessToken, String refreshToken) {
+        Claims access = validClaims(accessToken);
+        Claims refresh = validClaims(refreshToken);
+        if (access != null && refresh != null && !access.getSubject().equals(refresh.getSubject())) {
+            refresh = null;
+        }
+        if (access != null) {
+            revoke(access);
+        }
+        if (refresh != null) {
+            revoke(refresh);
+        }
+        return access != null || refresh != null;
+    }
+
+    // Примусове відкликання одного токена (будь-якого типу)
+    public boolean revoke(String token) {
+        Claims claims = validClaims(token);
+        if (claims == null) {
+            return false;
+        }
+        revoke(claims);
+        return true;
+    }
+
+    public void revokeAllFor(String userName) {
+        revocationStore.revokeAllFor(userName);
+    }
+
+    private Claims validClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        Claims claims = jwtUtil.verify(token);
+        return claims == null || revocationStore.isRevokedExact(claims) ? null : claims;
+    }
+
+    private boolean revoke(Claims claims) {
+        return revocationStore.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+    }
+
+    // UserDetails зберігає ролі як ROLE_X, у токен кладемо X – як і для користувачів з БД
+    static List<String> roles(UserDetails userDetails) {
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            String role = authority.getAuthority();
+            roles.add(role.startsWith("ROLE_") ? role.substring("ROLE_".length()) : role);
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UpstreamResilienceProperties;
+import com.example.demo.config.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Політики зовнішніх викликів окремо для кожного хоста (http.client.resilience.*):
+ * bulkhead (семафор на одночасні виклики) → circuit breaker → сам виклик, навколо – hedging і повтори з jitter.
+ * Невдача для breaker і повторів – I/O-помилка або таймаут, 5xx і 429; інші 4xx і помилки розбору тіла
+ * означають, що upstream відповів, і рахуються як успіх без повтору.
+ * Коли коло розімкнене або bulkhead заповнений, кидається UpstreamUnavailableException без жодного мережевого виклику.
+ * Зміни стану кола логуються і видно в метриках http.client.circuit.* та через /actuator/upstream (UpstreamResilienceEndpoint).
+ */
+@Slf4j
+@Component
+public class UpstreamResilience {
+
+    private final UpstreamResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    // Hedge-запити і первинні запити, за якими стежить таймер hedge-after. Окремо від asyncExecutor RestTemplateService,
+    // щоб fan-out getAsync не забирав потоки в hedging. Потоків не більше, ніж дозволів bulkhead: дозвіл береться до submit
+    private final ExecutorService hedgeExecutor;
+    private final ConcurrentHashMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public UpstreamResilience(UpstreamResilienceProperties properties,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        if (virtualThreads) {
+            this.hedgeExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        } else {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), new CustomizableThreadFactory("upstream-hedge-"));
+            this.hedgeExecutor = executor;
+        }
+    }
+
+    /**
+     * Виконує виклик за політикою хоста з url. idempotent = false – лише bulkhead і breaker, без повторів і hedging.
+     */
+    public <T> T call(String url, boolean idempotent, Supplier<T> call) {
+        return call(url, idempotent, () -> idempotent, call);
+    }
+
+    /**
+     * Виклик без hedging, який повторюється, лише поки retryable повертає true: потокове читання можна
+     * повторити, доки consumer не отримав жодного елемента.
+     */
+    public <T> T callRetryingWhile(String url, BooleanSupplier retryable, Supplier<T> call) {
+        return call(url, false, retryable, call);
+    }
+
+    private <T> T call(String url, boolean hedge, BooleanSupplier retryable, Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        Host host = host(url);
+        host.budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedge && host.hedgeAfterNanos > 0 ? host.hedged(call) : host.attempt(call);
+            } catch (RuntimeException e) {
+                if (attempt >= host.maxAttempts || e instanceof UpstreamUnavailableException
+                        || !isFailure(e) || !retryable.getAsBoolean() || !host.budget.tryWithdraw()) {
+                    throw e;
+                }
+                host.retries.increment();
+                log.debug("Повтор {} до {} після помилки: {}", attempt, host.name, e.toString());
+                if (!sleep(host.backoffNanos(attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Стан політик по хостах, до яких уже були виклики
+    public Map<String, Object> state() {
+        Map<String, Object> result = new TreeMap<>();
+        hosts.forEach((name, host) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("circuit", host.breaker.state());
+            state.put("failureRate", host.breaker.failureRate());
+            state.put("windowCalls", host.breaker.windowCalls());
+            state.put("inFlight", host.maxConcurrentCalls - host.bulkhead.availablePermits());
+            state.put("maxConcurrentCalls", host.maxConcurrentCalls);
+            state.put("retryTokens", host.budget.tokens());
+            state.put("retries", (long) host.retries.count());
+            state.put("hedges", (long) host.hedges.count());
+            state.put("hedgeWins", (long) host.hedgeWins.count());
+            result.put(name, state);
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdown();
+    }
+
+    private Host host(String url) {
+        String name = hostOf(url);
+        Host host = hosts.get(name);
+        return host != null ? host : hosts.computeIfAbsent(name, key -> new Host(key, properties.policyFor(key)));
+    }
+
+    // Хост без порту, у нижньому регістрі: "https://bank.gov.ua/NBUStatService/..." -> "bank.gov.ua"
+    static String hostOf(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && "/?#:".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        int userInfo = url.lastIndexOf('@', end - 1);
+        if (userInfo >= start) {
+            start = userInfo + 1;
+        }
+        return url.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    static boolean isFailure(Throwable e) {
+        if (e instanceof ResourceAccessException) {
+            return true;
+        }
+        if (e instanceof HttpStatusCodeException) {
+            HttpStatus status = HttpStatus.resolve(((HttpStatusCodeException) e).getRawStatusCode());
+            return status == null || status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Очікування відповіді перервано", e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RestClientException("REST ERROR ->" + cause, cause);
+    }
+
+    private final class Host {
+
+        private final String name;
+        private final CircuitBreaker breaker;
+        private final Semaphore bulkhead;
+        private final int maxConcurrentCalls;
+        private final long maxWaitNanos;
+        private final long slowCallNanos;
+        private final long hedgeAfterNanos;
+        private final int maxAttempts;
+        private final long backoffNanos;
+        private final long maxBackoffNanos;
+        private final RetryBudget budget;
+
+        private final Counter retries;
+        private final Counter hedges;
+        private final Counter hedgeWins;
+        private final Counter circuitRejected;
+        private final Counter bulkheadRejected;
+
+        private Host(String name, UpstreamResilienceProperties.Policy policy) {
+            this.name = name;
+            this.maxConcurrentCalls = Math.max(1, policy.getMaxConcurrentCalls());
+            this.bulkhead = new Semaphore(maxConcurrentCalls);
+            this.maxWaitNanos = policy.getMaxWait().toNanos();
+            this.slowCallNanos = policy.getSlowCallDuration().toNanos();
+            this.hedgeAfterNanos = policy.getHedgeAfter().toNanos();
+            this.maxAttempts = Math.max(1, policy.getMaxAttempts());
+            this.backoffNanos = policy.getRetryBackoff().toNanos();
+            this.maxBackoffNanos = policy.getRetryMaxBackoff().toNanos();
+            this.budget = new RetryBudget(policy.getRetryBudgetRatio(), policy.getRetryBudgetMaxTokens());
+            this.breaker = new CircuitBreaker(policy.getFailureRateThreshold(), policy.getMinimumCalls(),
+                    policy.getSlidingWindowSize(), policy.getOpenDuration().toNanos(), policy.getHalfOpenCalls(),
+                    this::onTransition);
+
+            this.retries = meterRegistry.counter("http.client.resilience.retries", "host", name);
+            this.hedges = meterRegistry.counter("http.client.resilience.hedges", "host", name);
+            this.hedgeWins = meterRegistry.counter("http.client.resilience.hedge.wins", "host", name);
+            this.circuitRejected = meterRegistry.counter("http.client.resilience.rejected", "host", name, "reason", "circuit");
+            this.bulkheadRejected = meterRegistry.counter("http.client.resilience.rejected", "host", name, "reason", "bulkhead");
+            Gauge.builder("http.client.circuit.state", breaker, b -> b.state().code)
+                    .description("0 – CLOSED, 1 – HALF_OPEN, 2 – OPEN")
+                    .tag("host", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.client.bulkhead.in.flight", bulkhead, s -> maxConcurrentCalls - s.availablePermits())
+                    .tag("host", name)
+                    .register(meterRegistry);
+        }
+
+        <T> T attempt(Supplier<T> call) {
+            acquire();
+            return execute(call);
+        }
+
+        // Первинний запит іде у hedgeExecutor; якщо за hedge-after відповіді немає і бюджет дозволяє – другий такий самий.
+        // Програвший запит не переривається (блокуючий сокет на interrupt не реагує) і тримає свій дозвіл bulkhead до кінця
+        <T> T hedged(Supplier<T> call) {
+            acquire();
+            CompletableFuture<T> primary = submit(call);
+            try {
+                return primary.get(hedgeAfterNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // відповіді ще немає – пробуємо hedge нижче
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RestClientException("Очікування відповіді перервано", e);
+            }
+            if (!budget.tryWithdraw() || !tryAcquire()) {
+                return await(primary);
+            }
+            CompletableFuture<T> hedge;
+            try {
+                hedge = submit(call);
+            } catch (RejectedExecutionException e) {
+                return await(primary);
+            }
+            hedges.increment();
+            CompletableFuture<T> first = new CompletableFuture<>();
+            AtomicInteger failed = new AtomicInteger();
+            primary.whenComplete((result, error) -> complete(first, result, error, failed));
+            hedge.whenComplete((result, error) -> {
+                if (error == null && !first.isDone()) {
+                    hedgeWins.increment();
+                }
+                complete(first, result, error, failed);
+            });
+            return await(first);
+        }
+
+        // Перша успішна відповідь перемагає; помилка – лише коли впали обидва запити
+        private <T> void complete(CompletableFuture<T> first, T result, Throwable error, AtomicInteger failed) {
+            if (error == null) {
+                first.complete(result);
+            } else if (failed.incrementAndGet() == 2) {
+                first.completeExceptionally(error);
+            }
+        }
+
+        // Дозвіл уже взято; він звільняється в execute або тут, якщо executor відмовив
+        private <T> CompletableFuture<T> submit(Supplier<T> call) {
+            try {
+                return CompletableFuture.supplyAsync(() -> execute(call), hedgeExecutor);
+            } catch (RejectedExecutionException e) {
+                breaker.onIgnored();
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        private void acquire() {
+            boolean permitted;
+            try {
+                permitted = bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RestClientException("Очікування bulkhead перервано", e);
+            }
+            if (!permitted) {
+                bulkheadRejected.increment();
+                throw new UpstreamUnavailableException(name, "Забагато одночасних запитів до " + name
+                        + " (bulkhead " + maxConcurrentCalls + ")");
+            }
+            if (!breaker.tryAcquire()) {
+                bulkhead.release();
+                circuitRejected.increment();
+                throw new UpstreamUnavailableException(name, "Коло до " + name + " розімкнене (" + breaker.state() + ")");
+            }
+        }
+
+        // Без очікування: для hedge-запиту, який не має сенсу ставити в чергу
+        private boolean tryAcquire() {
+            if (!bulkhead.tryAcquire()) {
+                return false;
+            }
+            if (!breaker.tryAcquire()) {
+                bulkhead.release();
+                return false;
+            }
+            return true;
+        }
+
+        private <T> T execute(Supplier<T> call) {
+            long start = System.nanoTime();
+            boolean failure = true;
+            try {
+                T result = call.get();
+                failure = slowCallNanos > 0 && System.nanoTime() - start > slowCallNanos;
+                return result;
+            } catch (RuntimeException e) {
+                failure = isFailure(e);
+                throw e;
+            } finally {
+                release(failure);
+            }
+        }
+
+        private void release(boolean failure) {
+            if (failure) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            bulkhead.release();
+        }
+
+        // Full jitter: випадкова пауза в [0, min(max, base * 2^(attempt - 1))]
+        private long backoffNanos(int attempt) {
+            long ceiling = backoffNanos << Math.min(attempt - 1, 20);
+            if (ceiling <= 0 || ceiling > maxBackoffNanos) {
+                ceiling = maxBackoffNanos;
+            }
+            return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+        }
+
+        private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to, double failureRate) {
+            meterRegistry.counter("http.client.circuit.transitions", "host", name, "state", to.name()).increment();
+            if (to == CircuitBreaker.State.OPEN) {
+                log.warn("Коло до {} розімкнене ({} -> {}), частка невдач {}", name, from, to, String.format("%.2f", failureRate));
+            } else {
+                log.info("Коло до {}: {} -> {}", name, from, to);
+            }
+        }
+    }
+
+    /**
+     * Бюджет повторів у тисячних частках токена: кожен виклик додає ratio, повтор або hedge забирає цілий токен.
+     * Спочатку бюджет повний, щоб поодинокі збої після старту теж повторювались.
+     */
+    private static final class RetryBudget {
+
+        private static final long TOKEN = 1000;
+
+        private final long deposit;
+        private final long capacity;
+        private final AtomicLong balance;
+
+        private RetryBudget(double ratio, int maxTokens) {
+            this.deposit = Math.round(ratio * TOKEN);
+            this.capacity = Math.max(0, maxTokens) * TOKEN;
+            this.balance = new AtomicLong(capacity);
+        }
+
+        void deposit() {
+            if (deposit > 0 && balance.get() < capacity) {
+                balance.accumulateAndGet(deposit, (current, add) -> Math.min(capacity, current + add));
+            }
+        }
+
+        boolean tryWithdraw() {
+            while (true) {
+                long current = balance.get();
+                if (current < TOKEN) {
+                    return false;
+                }
+                if (balance.compareAndSet(current, current - TOKEN)) {
+                    return true;
+                }
+            }
+        }
+
+        double tokens() {
+            return balance.get() / (double) TOKEN;
+        }
+    }
+}
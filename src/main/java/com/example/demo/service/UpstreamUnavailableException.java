@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Виклик не виконувався зовсім: коло хоста розімкнене або bulkhead заповнений.
+ * Кидається одразу, без очікування таймаутів, тож викликаючий код може відразу віддати запасну відповідь.
+ */
+public class UpstreamUnavailableException extends RestClientException {
+
+    private final String host;
+
+    public UpstreamUnavailableException(String host, String message) {
+        super(message);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
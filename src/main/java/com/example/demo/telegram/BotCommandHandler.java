@@ -0,0 +1,127 @@
+package com.example.demo.telegram;
+
+import com.example.demo.dao.entity.Student;
+import com.example.demo.dto.NbuRate;
+import com.example.demo.service.ExchangeRateSnapshot;
+import com.example.demo.service.NbuRateService;
+import com.example.demo.service.StudentSearchIndex;
+import com.example.demo.service.StudentStatistics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Відповіді на команди бота. Дані беруться лише зі знімків у пам'яті (NbuRateService, StudentSearchIndex,
+ * StudentStatistics), тож обробка повідомлення не робить ні мережевих викликів, ні запитів до БД.
+ */
+class BotCommandHandler {
+
+    private static final List<String> MAIN_CURRENCIES = Arrays.asList("USD", "EUR", "PLN", "GBP", "CHF");
+    private static final int MAX_STUDENTS = 10;
+    private static final String HELP = "Команди:\n"
+            + "/rate USD – курс НБУ для валюти\n"
+            + "/rates – курси основних валют\n"
+            + "/students – кількість студентів за класами\n"
+            + "/student Прізвище – пошук студентів за початком імені чи прізвища";
+
+    private final NbuRateService nbuRateService;
+    private final StudentSearchIndex studentIndex;
+    private final StudentStatistics statistics;
+
+    BotCommandHandler(NbuRateService nbuRateService, StudentSearchIndex studentIndex, StudentStatistics statistics) {
+        this.nbuRateService = nbuRateService;
+        this.studentIndex = studentIndex;
+        this.statistics = statistics;
+    }
+
+    String handle(String text) {
+        String trimmed = text.trim();
+        int space = trimmed.indexOf(' ');
+        String command = space < 0 ? trimmed : trimmed.substring(0, space);
+        String argument = space < 0 ? "" : trimmed.substring(space + 1).trim();
+        // У групах команда приходить як /rate@bot_name
+        int at = command.indexOf('@');
+        if (at > 0) {
+            command = command.substring(0, at);
+        }
+        switch (command.toLowerCase(Locale.ROOT)) {
+            case "/start":
+            case "/help":
+                return HELP;
+            case "/rate":
+                return rate(argument);
+            case "/rates":
+                return rates();
+            case "/students":
+                return students();
+            case "/student":
+                return student(argument);
+            default:
+                return "Невідома команда.\n" + HELP;
+        }
+    }
+
+    private String rate(String code) {
+        if (code.isEmpty()) {
+            return "Вкажіть код валюти, наприклад /rate USD";
+        }
+        ExchangeRateSnapshot snapshot = nbuRateService.snapshot();
+        if (snapshot.size() == 0) {
+            return "Курси НБУ ще не завантажено";
+        }
+        NbuRate rate = snapshot.get(code.toUpperCase(Locale.ROOT));
+        return rate == null ? "Курс " + code + " не знайдено" : format(rate) + " на " + snapshot.exchangeDate();
+    }
+
+    private String rates() {
+        ExchangeRateSnapshot snapshot = nbuRateService.snapshot();
+        if (snapshot.size() == 0) {
+            return "Курси НБУ ще не завантажено";
+        }
+        StringBuilder text = new StringBuilder("Курси НБУ на ").append(snapshot.exchangeDate()).append(':');
+        for (String code : MAIN_CURRENCIES) {
+            NbuRate rate = snapshot.get(code);
+            if (rate != null) {
+                text.append('\n').append(format(rate));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String format(NbuRate rate) {
+        return String.format(Locale.ROOT, "%s (%s): %.4f грн", rate.getCc(), rate.getTxt(), rate.getRate());
+    }
+
+    private String students() {
+        StringBuilder text = new StringBuilder("Усього студентів: ").append(statistics.total());
+        for (Map.Entry<Integer, Long> entry : statistics.countsByClass().entrySet()) {
+            text.append("\nКлас ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return text.toString();
+    }
+
+    private String student(String prefix) {
+        if (prefix.isEmpty()) {
+            return "Вкажіть початок імені чи прізвища, наприклад /student Шев";
+        }
+        List<Student> found = studentIndex.search(prefix, null, MAX_STUDENTS + 1);
+        if (found.isEmpty()) {
+            return "Студентів не знайдено";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(found.size(), MAX_STUDENTS); i++) {
+            Student student = found.get(i);
+            if (i > 0) {
+                text.append('\n');
+            }
+            text.append(student.getLastName()).append(' ').append(student.getFirstName())
+                    .append(", клас ").append(student.getClassNumber());
+        }
+        if (found.size() > MAX_STUDENTS) {
+            text.append("\n… уточніть запит");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.telegram;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Розподіляє оновлення по обмеженому пулу воркерів. Оновлення одного чату виконуються строго по черзі
+ * (у кожного чату своя черга, яку в кожен момент обробляє не більше одного воркера), різні чати – паралельно.
+ * Кількість необроблених оновлень обмежена maxPending: dispatch блокує потік опитування, поки воркери не звільняться,
+ * тож бот не бере з Telegram більше, ніж встигає обробити.
+ */
+@Slf4j
+class ChatDispatcher {
+
+    // Скільки оновлень одного чату воркер обробляє за раз, перш ніж віддати потік іншим чатам
+    private static final int CHAT_BATCH = 16;
+
+    private final ThreadPoolExecutor workers;
+    private final Semaphore pending;
+    private final Cache<Long, ChatQueue> chats = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    ChatDispatcher(int workerCount, int maxPending) {
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("telegram-worker-"));
+        this.workers.allowCoreThreadTimeOut(true);
+        this.pending = new Semaphore(maxPending);
+    }
+
+    void dispatch(long chatId, Runnable task) throws InterruptedException {
+        pending.acquire();
+        chats.get(chatId, id -> new ChatQueue()).submit(task);
+    }
+
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private final class ChatQueue implements Runnable {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void submit(Runnable task) {
+            tasks.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < CHAT_BATCH; i++) {
+                    Runnable task = tasks.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.warn("Помилка обробки оновлення Telegram: {}", e.toString());
+                    } finally {
+                        pending.release();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // Задача могла прийти між останнім poll і скиданням прапорця
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.telegram;
+
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Long polling бот: оновлення приходять пакетами до getUpdatesLimit і цілим пакетом передаються далі
+class DemoTelegramBot extends TelegramLongPollingBot {
+
+    private final String username;
+    private final Consumer<List<Update>> updatesConsumer;
+
+    DemoTelegramBot(DefaultBotOptions options, String token, String username, Consumer<List<Update>> updatesConsumer) {
+        super(options, token);
+        this.username = username;
+        this.updatesConsumer = updatesConsumer;
+    }
+
+    @Override
+    public String getBotUsername() {
+        return username;
+    }
+
+    @Override
+    public void onUpdateReceived(Update update) {
+        onUpdatesReceived(Collections.singletonList(update));
+    }
+
+    @Override
+    public void onUpdatesReceived(List<Update> updates) {
+        updatesConsumer.accept(updates);
+    }
+}
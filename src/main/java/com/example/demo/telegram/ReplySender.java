@@ -0,0 +1,147 @@
+package com.example.demo.telegram;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Відправка відповідей з урахуванням лімітів Telegram.
+ * Відповіді складаються в чергу по чатах; раз на sendInterval відправляється пакет: не більше maxMessagesPerSecond
+ * на секунду загалом (token bucket) і не частіше за perChatInterval в один чат. Відповіді одному чату,
+ * що накопичились за цей час, об'єднуються в одне повідомлення (до maxMessageLength символів).
+ * На 429 відправка призупиняється на retry_after, а повідомлення повертається на початок черги.
+ */
+@Slf4j
+class ReplySender {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final DefaultAbsSender sender;
+    private final int maxMessagesPerSecond;
+    private final long perChatIntervalNanos;
+    private final long sendIntervalMillis;
+    private final int maxMessageLength;
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("telegram-sender-"));
+
+    // Усе нижче – під synchronized (this)
+    private final Map<Long, Deque<String>> outbox = new LinkedHashMap<>();
+    private final Map<Long, Long> nextAllowedByChat = new HashMap<>();
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil = System.nanoTime();
+
+    ReplySender(DefaultAbsSender sender, TelegramProperties.Bot properties) {
+        this.sender = sender;
+        this.maxMessagesPerSecond = properties.getMaxMessagesPerSecond();
+        this.perChatIntervalNanos = properties.getPerChatInterval().toNanos();
+        this.sendIntervalMillis = properties.getSendInterval().toMillis();
+        this.maxMessageLength = properties.getMaxMessageLength();
+        this.tokens = maxMessagesPerSecond;
+    }
+
+    void start() {
+        ticker.scheduleWithFixedDelay(this::sendBatch, sendIntervalMillis, sendIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void shutdown() {
+        ticker.shutdown();
+    }
+
+    synchronized void send(long chatId, String text) {
+        if (text != null && !text.isEmpty()) {
+            outbox.computeIfAbsent(chatId, id -> new ArrayDeque<>()).addLast(text);
+        }
+    }
+
+    private void sendBatch() {
+        List<SendMessage> batch = takeBatch();
+        for (SendMessage message : batch) {
+            try {
+                sender.executeAsync(message).whenComplete((sent, error) -> {
+                    if (error != null) {
+                        onFailure(message, error);
+                    }
+                });
+            } catch (TelegramApiException e) {
+                onFailure(message, e);
+            }
+        }
+    }
+
+    private synchronized List<SendMessage> takeBatch() {
+        long now = System.nanoTime();
+        if (now - pausedUntil < 0 || outbox.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        tokens = Math.min(maxMessagesPerSecond, tokens + (now - lastRefill) / 1e9 * maxMessagesPerSecond);
+        lastRefill = now;
+        List<SendMessage> batch = new ArrayList<>();
+        Iterator<Map.Entry<Long, Deque<String>>> chats = outbox.entrySet().iterator();
+        while (tokens >= 1 && chats.hasNext()) {
+            Map.Entry<Long, Deque<String>> chat = chats.next();
+            Long nextAllowed = nextAllowedByChat.get(chat.getKey());
+            if (nextAllowed != null && now - nextAllowed < 0) {
+                continue;
+            }
+            batch.add(SendMessage.builder().chatId(String.valueOf(chat.getKey())).text(merge(chat.getValue())).build());
+            if (chat.getValue().isEmpty()) {
+                chats.remove();
+            }
+            nextAllowedByChat.put(chat.getKey(), now + perChatIntervalNanos);
+            tokens--;
+        }
+        nextAllowedByChat.values().removeIf(nextAllowed -> now - nextAllowed >= 0);
+        return batch;
+    }
+
+    // Забирає з черги чату стільки відповідей, скільки вміщається в одне повідомлення
+    private String merge(Deque<String> replies) {
+        String first = replies.pollFirst();
+        if (first.length() >= maxMessageLength) {
+            return first.substring(0, maxMessageLength);
+        }
+        StringBuilder text = new StringBuilder(first);
+        while (!replies.isEmpty() && text.length() + 2 + replies.peekFirst().length() <= maxMessageLength) {
+            text.append("\n\n").append(replies.pollFirst());
+        }
+        return text.toString();
+    }
+
+    private void onFailure(SendMessage message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TelegramApiRequestException
+                && Integer.valueOf(TOO_MANY_REQUESTS).equals(((TelegramApiRequestException) cause).getErrorCode())) {
+            TelegramApiRequestException tooMany = (TelegramApiRequestException) cause;
+            Integer retryAfter = tooMany.getParameters() == null ? null : tooMany.getParameters().getRetryAfter();
+            requeue(message, retryAfter == null ? 1 : retryAfter);
+            return;
+        }
+        log.warn("Не вдалося надіслати відповідь у чат {}: {}", message.getChatId(), cause.toString());
+    }
+
+    private synchronized void requeue(SendMessage message, int retryAfterSeconds) {
+        long resumeAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+        if (resumeAt - pausedUntil > 0) {
+            pausedUntil = resumeAt;
+        }
+        outbox.computeIfAbsent(Long.valueOf(message.getChatId()), id -> new ArrayDeque<>()).addFirst(message.getText());
+        log.warn("Telegram обмежив частоту відправки, пауза {} с", retryAfterSeconds);
+    }
+}
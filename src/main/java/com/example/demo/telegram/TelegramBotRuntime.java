@@ -0,0 +1,110 @@
+package com.example.demo.telegram;
+
+import com.example.demo.service.NbuRateService;
+import com.example.demo.service.StudentSearchIndex;
+import com.example.demo.service.StudentStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotSession;
+import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Telegram-бот (telgram.bot.enabled=true): long polling пакетами по telgram.bot.poll-limit оновлень,
+ * обробка на ChatDispatcher (порядок у межах чату, паралельно між чатами), відповіді – через ReplySender.
+ * Повідомлення з чатів поза telgram.bot.allowed-chat-ids ігноруються без відповіді.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "telgram.bot.enabled", havingValue = "true")
+public class TelegramBotRuntime {
+
+    private final TelegramProperties properties;
+    private final BotCommandHandler commands;
+    private final Set<Long> allowedChatIds;
+
+    private ChatDispatcher dispatcher;
+    private ReplySender replies;
+    private BotSession session;
+
+    public TelegramBotRuntime(TelegramProperties properties, NbuRateService nbuRateService,
+                              StudentSearchIndex studentIndex, StudentStatistics statistics) {
+        this.properties = properties;
+        this.commands = new BotCommandHandler(nbuRateService, studentIndex, statistics);
+        this.allowedChatIds = Set.copyOf(properties.getBot().getAllowedChatIds());
+    }
+
+    // Бібліотека telegrambots завантажується лише після готовності застосунку, не затримуючи старт
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        TelegramProperties.Bot bot = properties.getBot();
+        if (allowedChatIds.isEmpty()) {
+            log.warn("telgram.bot.allowed-chat-ids порожній – бот не відповідатиме жодному чату");
+        }
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(bot.getBaseUrl());
+        options.setGetUpdatesLimit(bot.getPollLimit());
+        options.setGetUpdatesTimeout(bot.getPollTimeout());
+        options.setAllowedUpdates(Collections.singletonList("message"));
+        // Потоки для executeAsync, яким ReplySender відправляє пакет відповідей
+        options.setMaxThreads(Math.max(2, bot.getWorkers() / 2));
+
+        dispatcher = new ChatDispatcher(bot.getWorkers(), bot.getMaxPending());
+        DemoTelegramBot telegramBot = new DemoTelegramBot(options, properties.getUser().getToken(),
+                properties.getUser().getName(), this::onUpdates);
+        replies = new ReplySender(telegramBot, bot);
+        replies.start();
+        try {
+            session = new TelegramBotsApi(DefaultBotSession.class).registerBot(telegramBot);
+            log.info("Telegram-бот {} запущено ({})", properties.getUser().getName(), bot.getBaseUrl());
+        } catch (TelegramApiException e) {
+            log.error("Не вдалося запустити Telegram-бота: {}", e.toString());
+        }
+    }
+
+    // Викликається потоком опитування; блокується, якщо воркери не встигають (див. ChatDispatcher)
+    private void onUpdates(List<Update> updates) {
+        for (Update update : updates) {
+            Message message = update.getMessage();
+            if (message == null || !message.hasText()) {
+                continue;
+            }
+            long chatId = message.getChatId();
+            if (!allowedChatIds.contains(chatId)) {
+                log.debug("Повідомлення з чату {} поза telgram.bot.allowed-chat-ids – ігноруємо", chatId);
+                continue;
+            }
+            String text = message.getText();
+            try {
+                dispatcher.dispatch(chatId, () -> replies.send(chatId, commands.handle(text)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (session != null && session.isRunning()) {
+            session.stop();
+        }
+        // Зупинка до ApplicationReadyEvent: бот ще не запускався
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+            replies.shutdown();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.telegram;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// telgram.user.* – облікові дані бота, telgram.bot.* – параметри runtime (опитування, пул, відправка)
+@Data
+@Component
+@ConfigurationProperties(prefix = "telgram")
+public class TelegramProperties {
+
+    private User user = new User();
+    private Bot bot = new Bot();
+
+    @Data
+    public static class User {
+        private String name;
+        private String token;
+        private List<String> availableStatusesStatuses = new ArrayList<>();
+    }
+
+    @Data
+    public static class Bot {
+        private boolean enabled;
+        // Разом із токеном дає https://api.telegram.org/bot<token>/<method>; для тестів – адреса локальної заглушки
+        private String baseUrl = "https://api.telegram.org/bot";
+        // Скільки оновлень забирати одним getUpdates і скільки секунд тримати long polling
+        private int pollLimit = 100;
+        private int pollTimeout = 50;
+        private int workers = 8;
+        // Максимум необроблених оновлень; при досягненні опитування чекає на воркерів
+        private int maxPending = 1000;
+        // Обмеження Telegram: ~30 повідомлень на секунду загалом і ~1 на секунду в один чат
+        private int maxMessagesPerSecond = 30;
+        private Duration perChatInterval = Duration.ofSeconds(1);
+        private Duration sendInterval = Duration.ofMillis(50);
+        private int maxMessageLength = 4096;
+        // Чати, яким бот відповідає (дані студентів – ті самі, що за JWT на /students); порожньо – нікому
+        private Set<Long> allowedChatIds = new LinkedHashSet<>();
+    }
+}
@@ -16,10 +16,11 @@ document.getElementById("login").addEventListener("submit", function(event) {
             if (!response.ok){
                 throw  new Error(" login error")
             }
-            return response.text();
+            return response.json();
         })
-        .then(token =>{
-            localStorage.setItem("jwt", token);
+        .then(tokens =>{
+            localStorage.setItem("jwt", tokens.accessToken);
+            localStorage.setItem("refreshToken", tokens.refreshToken);
             window.location.href = "index.html"
 
     })
@@ -1,3 +1,52 @@
+// Access-токен живе 15 хв: на 401 один раз оновлюємо пару через /auth/refresh і повторюємо запит.
+// Refresh-токен одноразовий, тому паралельні запити чекають одне спільне оновлення, а не шлють свої
+let refreshing = null;
+
+function refreshTokens() {
+    if (!refreshing) {
+        refreshing = fetch("/auth/refresh", {
+            method: "POST",
+            headers: {
+                "Content-Type": "application/json"
+            },
+            body: JSON.stringify({ refreshToken: localStorage.getItem("refreshToken") })
+        })
+            .then(response => {
+                if (!response.ok) {
+                    throw new Error("refresh error");
+                }
+                return response.json();
+            })
+            .then(tokens => {
+                localStorage.setItem("jwt", tokens.accessToken);
+                localStorage.setItem("refreshToken", tokens.refreshToken);
+            })
+            .finally(() => refreshing = null);
+    }
+    return refreshing;
+}
+
+function authFetch(url, options = {}) {
+    const send = () => fetch(url, {
+        ...options,
+        headers: {
+            ...options.headers,
+            "Authorization": "Bearer " + localStorage.getItem("jwt")
+        }
+    });
+    return send().then(response => {
+        if (response.status !== 401 || !localStorage.getItem("refreshToken")) {
+            return response;
+        }
+        return refreshTokens()
+            .then(send)
+            .catch(error => {
+                window.location.href = "login.html";
+                throw error;
+            });
+    });
+}
+
 document.getElementById("student-form").addEventListener("submit", function(event) {
     event.preventDefault();
 
@@ -5,13 +54,10 @@ document.getElementById("student-form").addEventListener("submit", function(even
     const lastName = document.getElementById("last-name").value;
     const classNumber = document.getElementById("class-number").value;
 
-    const token = localStorage.getItem("jwt");
-
-    fetch("/students", {
+    authFetch("/students", {
         method: "POST",
         headers: {
-            "Content-Type": "application/json",
-            "Authorization": "Bearer"+token
+            "Content-Type": "application/json"
         },
         body: JSON.stringify({ firstName, lastName, classNumber })
     })
@@ -23,24 +69,32 @@ document.getElementById("student-form").addEventListener("submit", function(even
         .catch(error => console.error("Помилка при додаванні учня:", error));
 });
 
-// Завантаження списку студентів при відкритті сторінки
-document.addEventListener("DOMContentLoaded", () => {
-    const token = localStorage.getItem("jwt");
+function renderStudents(data) {
+    const list = document.getElementById("students-list");
+    list.innerHTML = ""; // Очищаємо список перед додаванням
+    data.forEach(student => {
+        const li = document.createElement("li");
+        li.textContent = `${student.firstName} ${student.lastName} (Клас: ${student.classNumber})`;
+        list.appendChild(li);
+    });
+}
 
-    fetch("/students", {
-        headers: {
-            "Authorization": "Bearer "+token
-        }
-    })
+function loadStudents(url) {
+    authFetch(url)
         .then(response => response.json())
-        .then(data => {
-            const list = document.getElementById("students-list");
-            list.innerHTML = ""; // Очищаємо список перед додаванням
-            data.forEach(student => {
-                const li = document.createElement("li");
-                li.textContent = `${student.firstName} ${student.lastName} (Клас: ${student.classNumber})`;
-                list.appendChild(li);
-            });
-        })
+        .then(renderStudents)
         .catch(error => console.error("Помилка при завантаженні студентів:", error));
+}
+
+// Завантаження списку студентів при відкритті сторінки
+document.addEventListener("DOMContentLoaded", () => loadStudents("/students"));
+
+// Пошук виконує сервер (/students/search), а не фільтр по повному списку; запит – після паузи у введенні
+let searchTimer;
+document.getElementById("student-search").addEventListener("input", event => {
+    clearTimeout(searchTimer);
+    const query = event.target.value.trim();
+    searchTimer = setTimeout(() => {
+        loadStudents(query ? "/students/search?q=" + encodeURIComponent(query) : "/students");
+    }, 200);
 });
\ No newline at end of file